@@ -1,11 +1,15 @@
 package com.ems.backend.Config;
 
 import com.ems.backend.Services.EmployeeUserDetailsService;
+import com.ems.backend.Services.TokenVersionService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,16 +18,23 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
 private final JwtUtils jwtUtils;
 private final EmployeeUserDetailsService userDetailsService;
+private final TokenVersionService tokenVersionService;
 
-public JwtAuthFilter(JwtUtils jwtUtils, EmployeeUserDetailsService userDetailsService) {
+// When enabled, tokens carrying employee claims are trusted without loading the employee row.
+@Value("${ems.security.claims-principal:true}")
+private boolean claimsPrincipal;
+
+public JwtAuthFilter(JwtUtils jwtUtils, EmployeeUserDetailsService userDetailsService, TokenVersionService tokenVersionService) {
     this.jwtUtils = jwtUtils;
     this.userDetailsService = userDetailsService;
+    this.tokenVersionService = tokenVersionService;
 }
 
 @Override
@@ -33,7 +44,7 @@ protected void doFilterInternal(HttpServletRequest request,
 
     final String authHeader = request.getHeader("Authorization");
     final String token;
-    final String username;
+    final Claims claims;
 
     if (authHeader == null || !authHeader.startsWith("Bearer ")) {
         filterChain.doFilter(request, response);
@@ -41,17 +52,33 @@ protected void doFilterInternal(HttpServletRequest request,
     }
 
     token = authHeader.substring(7);
-    username = jwtUtils.extractUsername(token);
+    // Single parse + signature check; null for malformed, tampered or expired tokens.
+    claims = jwtUtils.verify(token);
+
+    if (claims != null && claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        UsernamePasswordAuthenticationToken authToken = null;
+        Number employeeId = claims.get(JwtUtils.EMPLOYEE_ID_CLAIM, Number.class);
 
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-        UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (claimsPrincipal && employeeId != null) {
+            Number version = claims.get(JwtUtils.TOKEN_VERSION_CLAIM, Number.class);
+            String role = claims.get(JwtUtils.ROLE_CLAIM, String.class);
+            if (version != null && role != null && tokenVersionService.isCurrent(employeeId.longValue(), version.intValue())) {
+                TokenPrincipal principal = new TokenPrincipal(employeeId.longValue(), claims.getSubject(), role);
+                authToken = new UsernamePasswordAuthenticationToken(
+                        principal, null, List.of(new SimpleGrantedAuthority(role))
+                );
+            }
+        } else {
+            UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
 
-        // Updated token validation
-        if (jwtUtils.isTokenValid(token, userDetails)) {
-            UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
+            if (claims.getSubject().equals(userDetails.getUsername())) {
+                authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()
+                );
+            }
+        }
+
+        if (authToken != null) {
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
         }
@@ -59,4 +86,4 @@ protected void doFilterInternal(HttpServletRequest request,
 
     filterChain.doFilter(request, response);
 }
-}
\ No newline at end of file
+}
@@ -1,6 +1,10 @@
 package com.ems.backend.Config;
 
+import com.ems.backend.Models.Employee;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -10,7 +14,11 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class JwtUtils {
@@ -20,49 +28,114 @@ public class JwtUtils {
     // This key is a 256-bit key encoded in Base64.
     private static final String SECRET = "======================YourSuperLongAndSecretKeyHere=========================";
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    public static final String EMPLOYEE_ID_CLAIM = "eid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+    // Upper bound on the number of verified tokens kept in memory.
+    private static final int MAX_VERIFIED_TOKENS = 10_000;
+
+    // The key and parser are immutable and thread-safe, so they are built once instead of per call.
+    private final Key signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // Tokens whose signature has already been checked, so repeat requests skip the HMAC entirely.
+    private final Map<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+    // Lower bound on the expiry of every cached token; while it is in the future a full cache has nothing to evict.
+    private final AtomicLong earliestExpiry = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicBoolean sweeping = new AtomicBoolean();
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Parses and verifies the token once and returns its claims,
+     * or null if the token is malformed, badly signed or expired.
+     * Already verified tokens are served from memory until they expire.
+     */
+    public Claims verify(String token) {
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            verifiedTokens.remove(token);
+            return null;
+        }
+
+        final Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (isExpired(claims)) {
+            return null;
+        }
+        remember(token, claims);
+        return claims;
     }
 
-    // New method to get the signing key
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private void remember(String token, Claims claims) {
+        if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+            // Only sweep once something in the cache can actually have expired.
+            if (earliestExpiry.get() > System.currentTimeMillis() || !sweepExpired()) {
+                return;
+            }
+        }
+        verifiedTokens.put(token, claims);
+        Date expiration = claims.getExpiration();
+        earliestExpiry.accumulateAndGet(expiration == null ? Long.MAX_VALUE : expiration.getTime(), Math::min);
     }
 
-    public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    // Drops expired tokens and returns whether there is room again. One sweeper at a time;
+    // the others just skip caching while it runs.
+    private boolean sweepExpired() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            // Reset first so a token cached concurrently still lowers the bound through remember().
+            earliestExpiry.set(Long.MAX_VALUE);
+            long earliest = Long.MAX_VALUE;
+            for (Iterator<Claims> it = verifiedTokens.values().iterator(); it.hasNext(); ) {
+                Date expiration = it.next().getExpiration();
+                if (expiration == null) continue;
+                if (expiration.getTime() <= now) {
+                    it.remove();
+                } else {
+                    earliest = Math.min(earliest, expiration.getTime());
+                }
+            }
+            earliestExpiry.accumulateAndGet(earliest, Math::min);
+            return verifiedTokens.size() < MAX_VERIFIED_TOKENS;
+        } finally {
+            sweeping.set(false);
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Boolean isTokenValid(String token, UserDetails userDetails) {
+        final Claims claims = verify(token);
+        return claims != null && userDetails.getUsername().equals(claims.getSubject());
     }
 
     public String generateToken(UserDetails userDetails) {
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder();
+        if (userDetails instanceof Employee employee) {
+            // Lets the auth filter build the principal from the token alone.
+            builder.claim(EMPLOYEE_ID_CLAIM, employee.getId())
+                    .claim(ROLE_CLAIM, employee.getRole())
+                    .claim(TOKEN_VERSION_CLAIM, employee.getTokenVersion());
+        }
+        return builder
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-}
\ No newline at end of file
+}
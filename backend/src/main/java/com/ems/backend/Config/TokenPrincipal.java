@@ -0,0 +1,12 @@
+package com.ems.backend.Config;
+
+/**
+ * Principal built from verified JWT claims, used instead of loading the employee row on every request.
+ */
+public record TokenPrincipal(Long id, String username, String role) {
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
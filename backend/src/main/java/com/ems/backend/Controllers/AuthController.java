@@ -3,56 +3,88 @@ package com.ems.backend.Controllers;
 import com.ems.backend.Config.JwtUtils;
 import com.ems.backend.DTO.AuthRequest;
 import com.ems.backend.DTO.AuthResponse;
-import com.ems.backend.Services.EmployeeUserDetailsService;
+import com.ems.backend.DTO.EmployeeIdentity;
+import com.ems.backend.Models.Employee;
+import com.ems.backend.Repositories.EmployeeRepo;
+import com.ems.backend.Services.EmployeeIdentityCache;
+import com.ems.backend.Services.LoginMetrics;
+import com.ems.backend.Services.PasswordHashingService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
-    private final EmployeeUserDetailsService userDetailsService;
+    private final EmployeeIdentityCache identityCache;
+    private final EmployeeRepo employeeRepo;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginMetrics loginMetrics;
+    private final Executor taskExecutor;
 
     public AuthController(
-            AuthenticationManager authenticationManager,
             JwtUtils jwtUtils,
-            EmployeeUserDetailsService userDetailsService
+            EmployeeIdentityCache identityCache,
+            EmployeeRepo employeeRepo,
+            PasswordHashingService passwordHashingService,
+            LoginMetrics loginMetrics,
+            @Qualifier("applicationTaskExecutor") Executor taskExecutor
     ) {
-        this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+        this.identityCache = identityCache;
+        this.employeeRepo = employeeRepo;
+        this.passwordHashingService = passwordHashingService;
+        this.loginMetrics = loginMetrics;
+        this.taskExecutor = taskExecutor;
     }
 
+    /**
+     * The credentials come from the identity cache and the BCrypt check runs on the hashing pool,
+     * so the request thread is released while the password is verified. The full profile is only
+     * loaded once the password has matched, because the client keeps it as the session user; that
+     * query runs on the application task executor so a slow database never holds a hashing thread.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
-        try {
-            System.out.println(authRequest);
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            authRequest.getUsername(),
-                            authRequest.getPassword()
-                    )
-            );
-
-
-            final UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.getUsername());
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequest authRequest) {
+        long startNanos = System.nanoTime();
+        EmployeeIdentity identity = identityCache.findByOfficialEmail(authRequest.getUsername());
 
-            final String token = jwtUtils.generateToken(userDetails);
-
-            return ResponseEntity.ok(new AuthResponse(token, userDetails));
-        } catch (AuthenticationException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        CompletableFuture<ResponseEntity<?>> response;
+        try {
+            if (identity == null) {
+                // Same BCrypt cost as a wrong password, so unknown usernames cannot be told apart by timing.
+                response = passwordHashingService.mismatchAsync(authRequest.getPassword())
+                        .thenApply(matches -> invalidCredentials());
+            } else {
+                response = passwordHashingService.matchesAsync(authRequest.getPassword(), identity.passwordHash())
+                        .thenApplyAsync(matches -> {
+                            Employee employee = matches ? employeeRepo.findById(identity.id()).orElse(null) : null;
+                            return employee != null
+                                    ? ResponseEntity.ok(new AuthResponse(jwtUtils.generateToken(employee), employee))
+                                    : invalidCredentials();
+                        }, taskExecutor);
+            }
+        } catch (RejectedExecutionException e) {
+            response = CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header("Retry-After", "1")
+                            .body("Too many login attempts, please retry shortly"));
         }
+        return response.whenComplete((result, error) ->
+                loginMetrics.record(startNanos, result == null ? 500 : result.getStatusCode().value()));
+    }
+
+    private ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
     }
 }
@@ -3,12 +3,18 @@ package com.ems.backend.Controllers;
 import com.ems.backend.DTO.EmployeeDTO;
 import com.ems.backend.Models.Employee;
 import com.ems.backend.Repositories.EmployeeRepo;
+import com.ems.backend.Services.BlobStore;
+import com.ems.backend.Services.EmployeeImportService;
 import com.ems.backend.Services.EmployeeServices;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -22,6 +28,12 @@ public class EmployeeController {
     @Autowired
     private EmployeeRepo employeeRepo;
 
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
     @RequestMapping("/")
     public String displayMessgae()
     {
@@ -43,7 +55,13 @@ public class EmployeeController {
         employee.setSalary(dto.getSalary());
         employee.setEmailId(dto.getEmailId());
         employee.setRole(dto.getRole());
-        employee.setAadhaarPan(dto.getAadhaarPan());
+        if (dto.getAadhaarPan() != null && dto.getAadhaarPan().length > 0) {
+            try {
+                employee.setAadhaarPanRef(blobStore.store(new ByteArrayInputStream(dto.getAadhaarPan())));
+            } catch (IOException e) {
+                return "Error while storing document: " + e.getMessage();
+            }
+        }
 
         // Optional fields from DTO
         employee.setOfficialEmail(dto.getOfficialEmail());
@@ -57,7 +75,7 @@ public class EmployeeController {
         employee.setPayRoll(false);
 
         // Profile pic could be set later if passed as multipart/form-data
-        employee.setProfilePic(null);
+        employee.setProfilePicRef(null);
 
         // Set Manager (self-referencing relationship)
         if (dto.getManager() != null) {
@@ -69,6 +87,21 @@ public class EmployeeController {
     }
 
 
+    /**
+     * Streams a CSV (header row required) or NDJSON upload in the request body and
+     * answers with NDJSON progress and per-row error lines.
+     */
+    @RequestMapping(value = "/employees/import", method = RequestMethod.POST)
+    public void importEmployees(@RequestParam(value = "format", required = false) String format,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        boolean csv = format != null
+                ? "csv".equalsIgnoreCase(format)
+                : request.getContentType() != null && request.getContentType().contains("csv");
+        response.setContentType("application/x-ndjson");
+        employeeImportService.importEmployees(request.getInputStream(), csv, response.getOutputStream());
+    }
+
     @RequestMapping("/updateEmployee")
     public String updateEmployee(@RequestBody Employee user)
     {
@@ -89,16 +122,21 @@ public class EmployeeController {
     public ResponseEntity<?> forgotPassword(@RequestBody Map<String, String> data)
     {
         String email = data.get("email");
-        System.out.println(email);
         return employeeServices.forgotPassword(email);
     }
 
+    @RequestMapping("/verify-otp")
+    public ResponseEntity<?> verifyOtp(@RequestBody Map<String, String> data)
+    {
+        return employeeServices.verifyOtp(data.get("email"), data.get("otp"));
+    }
+
     @RequestMapping("/reset-password")
     public ResponseEntity<?> resetPassword(@RequestBody Map<String, String> data)
     {
         String email = data.get("email");
         String password = data.get("password");
-        return employeeServices.resetPassword(email, password);
+        return employeeServices.resetPassword(email, password, data.get("resetToken"));
     }
 
     @RequestMapping("/fetchAllUsers")
@@ -107,6 +145,24 @@ public class EmployeeController {
         return employeeServices.fetchAllUsers();
     }
 
+    @RequestMapping("/employees")
+    public ResponseEntity<?> listEmployees(@RequestParam(value = "status", required = false) String status,
+                                           @RequestParam(value = "role", required = false) String role,
+                                           @RequestParam(value = "sort", required = false) String sort,
+                                           @RequestParam(value = "direction", required = false) String direction,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "size", required = false) Integer size)
+    {
+        return employeeServices.listEmployees(status, role, sort, direction, cursor, size);
+    }
+
+    @RequestMapping("/employees/search")
+    public ResponseEntity<?> searchEmployees(@RequestParam("q") String query,
+                                             @RequestParam(value = "limit", required = false) Integer limit)
+    {
+        return employeeServices.searchEmployees(query, limit);
+    }
+
     @RequestMapping("/fetchUser")
     public ResponseEntity<?> fetchUser(@RequestBody Map<String, String> data)
     {
@@ -133,6 +189,12 @@ public class EmployeeController {
         return employeeServices.updateField(emailId, name, value);
     }
 
+    @RequestMapping(value = "/employees/{id}", method = RequestMethod.PATCH)
+    public ResponseEntity<?> patchEmployee(@PathVariable Long id, @RequestBody Map<String, String> fields)
+    {
+        return employeeServices.patchEmployee(id, fields);
+    }
+
     @RequestMapping("/updatestatus")
     public ResponseEntity<?> updateStatus(@RequestBody Map<String, String> data)
     {
@@ -150,15 +212,26 @@ public class EmployeeController {
     }
 
     @RequestMapping("/getProfilePic/{id}")
-    public ResponseEntity<?> getProfilePic(@PathVariable Long id)
+    public ResponseEntity<?> getProfilePic(@PathVariable Long id,
+                                           @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                           @RequestHeader(value = "Range", required = false) String range)
+    {
+        return employeeServices.getProfilePic(id, ifNoneMatch, range);
+    }
+
+    @RequestMapping("/getProfilePic/{id}/thumbnail/{size}")
+    public ResponseEntity<?> getProfilePicThumbnail(@PathVariable Long id, @PathVariable int size,
+                                                    @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch)
     {
-        return employeeServices.getProfilePic(id);
+        return employeeServices.getProfilePicThumbnail(id, size, ifNoneMatch);
     }
 
     @RequestMapping("/getAadhaarPan/{id}")
-    public ResponseEntity<?> getAadhaarPan(@PathVariable Long id)
+    public ResponseEntity<?> getAadhaarPan(@PathVariable Long id,
+                                           @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                           @RequestHeader(value = "Range", required = false) String range)
     {
-        return employeeServices.getAadharPan(id);
+        return employeeServices.getAadharPan(id, ifNoneMatch, range);
     }
 
     @RequestMapping("/setProfilePic/{id}")
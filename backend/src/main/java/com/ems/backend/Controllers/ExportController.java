@@ -0,0 +1,40 @@
+package com.ems.backend.Controllers;
+
+import com.ems.backend.Services.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/api")
+public class ExportController {
+
+    @Autowired
+    ExportService exportService;
+
+    @RequestMapping("/export/employees")
+    public ResponseEntity<?> exportEmployees(@RequestParam(value = "format", required = false) String format,
+                                             @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                             Authentication authentication)
+    {
+        return exportService.export(ExportService.EMPLOYEES, format, gzip, authentication);
+    }
+
+    @RequestMapping("/export/leaves")
+    public ResponseEntity<?> exportLeaves(@RequestParam(value = "format", required = false) String format,
+                                          @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                          Authentication authentication)
+    {
+        return exportService.export(ExportService.LEAVES, format, gzip, authentication);
+    }
+
+    @RequestMapping("/export/payslips")
+    public ResponseEntity<?> exportPayslips(@RequestParam(value = "format", required = false) String format,
+                                            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                            Authentication authentication)
+    {
+        return exportService.export(ExportService.PAYSLIPS, format, gzip, authentication);
+    }
+}
@@ -1,11 +1,13 @@
 package com.ems.backend.Controllers;
 
 
+import com.ems.backend.DTO.BulkStatusRequest;
 import com.ems.backend.DTO.LeaveDTO;
 import com.ems.backend.Models.Employee;
 import com.ems.backend.Models.Leave;
 import com.ems.backend.Models.LeaveType;
 import com.ems.backend.Repositories.EmployeeRepo;
+import com.ems.backend.Services.BlobStore;
 import com.ems.backend.Services.LeaveServices;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Optional;
@@ -29,6 +32,8 @@ public class LeavesController {
     private LeaveServices leaveServices;
     @Autowired
     private EmployeeRepo employeeRepo;
+    @Autowired
+    private BlobStore blobStore;
 
     @RequestMapping("/leaves/apply")
     public ResponseEntity<?> applyLeave(
@@ -67,8 +72,8 @@ public class LeavesController {
 
 
         if (attachment != null && !attachment.isEmpty()) {
-            try {
-                newLeaveRequest.setAttachment(attachment.getBytes());
+            try (InputStream in = attachment.getInputStream()) {
+                newLeaveRequest.setAttachmentRef(blobStore.store(in));
             } catch (IOException e) {
                 return new ResponseEntity<>("Failed to process attachment.", HttpStatus.INTERNAL_SERVER_ERROR);
             }
@@ -78,6 +83,14 @@ public class LeavesController {
         return leaveServices.applyLeave(newLeaveRequest);
     }
 
+    @RequestMapping("/leaves/{id}/attachment")
+    public ResponseEntity<?> getAttachment(@PathVariable Long id,
+                                           @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                           @RequestHeader(value = "Range", required = false) String range)
+    {
+        return leaveServices.getAttachment(id, ifNoneMatch, range);
+    }
+
     @RequestMapping("/leaves/history/{id}")
     public ResponseEntity<?> getHistory(@PathVariable Long id)
     {
@@ -95,19 +108,73 @@ public class LeavesController {
         leave.setReason(data.getReason());
         leave.setStartDate(data.getStartDate());
         leave.setEndDate(data.getEndDate());
-        leave.setAttachment(data.getAttachment());
+        leave.setAttachmentRef(data.getAttachment());
         leave.setSubmittedDate(data.getSubmittedDate());
         leave.setId(data.getId());
         System.out.println(leave);
         return leaveServices.cancelLeave(leave);
     }
 
+    @RequestMapping("/leaves")
+    public ResponseEntity<?> queryLeaves(@RequestParam(value = "managerId", required = false) Long managerId,
+                                         @RequestParam(value = "status", required = false) String status,
+                                         @RequestParam(value = "leaveType", required = false) String leaveType,
+                                         @RequestParam(value = "from", required = false) String from,
+                                         @RequestParam(value = "to", required = false) String to,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", required = false) Integer size)
+    {
+        return leaveServices.queryLeaves(managerId, status, leaveType, from, to, cursor, size);
+    }
+
+    @RequestMapping("/leaves/status-counts")
+    public ResponseEntity<?> countLeavesByStatus(@RequestParam(value = "managerId", required = false) Long managerId)
+    {
+        return leaveServices.countLeavesByStatus(managerId);
+    }
+
+    @RequestMapping("/leaves/calendar")
+    public ResponseEntity<?> getTeamCalendar(@RequestParam("managerId") Long managerId,
+                                             @RequestParam(value = "from", required = false) String from,
+                                             @RequestParam(value = "to", required = false) String to,
+                                             @RequestParam(value = "includePending", defaultValue = "false") boolean includePending)
+    {
+        return leaveServices.getTeamCalendar(managerId, from, to, includePending);
+    }
+
+    @RequestMapping("/leaves/overlaps")
+    public ResponseEntity<?> findOverlaps(@RequestParam("employeeId") Long employeeId,
+                                          @RequestParam("startDate") String startDate,
+                                          @RequestParam("endDate") String endDate)
+    {
+        return leaveServices.findOverlaps(employeeId, startDate, endDate);
+    }
+
+    @RequestMapping("/leaves/balances/{employeeId}")
+    public ResponseEntity<?> getBalances(@PathVariable Long employeeId,
+                                         @RequestParam(value = "year", required = false) Integer year)
+    {
+        return leaveServices.getBalances(employeeId, year);
+    }
+
+    @RequestMapping(value = "/leaves/balances/rebuild", method = RequestMethod.POST)
+    public ResponseEntity<?> rebuildBalances(@RequestParam(value = "employeeId", required = false) Long employeeId)
+    {
+        return leaveServices.rebuildBalances(employeeId);
+    }
+
     @RequestMapping("/leaves/allRequests")
     public ResponseEntity<?> getAllHistory()
     {
         return leaveServices.getAllHistory();
     }
 
+    @RequestMapping(value = "/leaves/bulk-status", method = RequestMethod.POST)
+    public ResponseEntity<?> bulkChangeStatus(@RequestBody BulkStatusRequest request)
+    {
+        return leaveServices.bulkChangeStatus(request);
+    }
+
     @RequestMapping("/leaves/{id}/{actionType}")
     public ResponseEntity<?> changeStatus(@PathVariable Long id, @PathVariable String actionType)
     {
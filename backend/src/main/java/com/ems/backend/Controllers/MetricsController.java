@@ -0,0 +1,66 @@
+package com.ems.backend.Controllers;
+
+import com.ems.backend.Services.EmployeeIdentityCache;
+import com.ems.backend.Services.LeaveOverlapIndex;
+import com.ems.backend.Services.LoginMetrics;
+import com.ems.backend.Services.MailOutboxService;
+import com.ems.backend.Services.OtpService;
+import com.ems.backend.Services.PasswordHashingService;
+import com.ems.backend.Services.PayrollEngine;
+import com.ems.backend.Services.PayrollRunService;
+import com.ems.backend.Services.ThumbnailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/api")
+public class MetricsController {
+
+    @Autowired
+    PasswordHashingService passwordHashingService;
+
+    @Autowired
+    LoginMetrics loginMetrics;
+
+    @Autowired
+    ThumbnailService thumbnailService;
+
+    @Autowired
+    EmployeeIdentityCache identityCache;
+
+    @Autowired
+    MailOutboxService mailOutboxService;
+
+    @Autowired
+    OtpService otpService;
+
+    @Autowired
+    LeaveOverlapIndex leaveOverlapIndex;
+
+    @Autowired
+    PayrollRunService payrollRunService;
+
+    @Autowired
+    PayrollEngine payrollEngine;
+
+    @RequestMapping("/metrics")
+    public ResponseEntity<?> getMetrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("login", loginMetrics.stats());
+        metrics.put("passwordHashing", passwordHashingService.stats());
+        metrics.put("thumbnailCache", thumbnailService.stats());
+        metrics.put("identityCache", identityCache.stats());
+        metrics.put("mailOutbox", mailOutboxService.stats());
+        metrics.put("otp", otpService.stats());
+        metrics.put("leaveOverlapIndex", leaveOverlapIndex.stats());
+        metrics.put("payroll", payrollRunService.stats());
+        metrics.put("payrollEngine", payrollEngine.stats());
+        return ResponseEntity.ok().body(metrics);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ems.backend.Controllers;
+
+import com.ems.backend.Services.OrgChartIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/api")
+public class OrgChartController {
+
+    @Autowired
+    OrgChartIndex orgChartIndex;
+
+    @RequestMapping("/org/{id}/subtree")
+    public ResponseEntity<?> getSubtree(@PathVariable Long id)
+    {
+        long[] ids = orgChartIndex.subtree(id);
+        if (ids == null) return notFound(id);
+        return ResponseEntity.ok().body(Map.of("employeeId", id, "count", ids.length, "reports", ids));
+    }
+
+    @RequestMapping("/org/{id}/chain")
+    public ResponseEntity<?> getChain(@PathVariable Long id)
+    {
+        long[] ids = orgChartIndex.chain(id);
+        if (ids == null) return notFound(id);
+        return ResponseEntity.ok().body(Map.of("employeeId", id, "managers", ids));
+    }
+
+    @RequestMapping("/org/{id}/span")
+    public ResponseEntity<?> getSpan(@PathVariable Long id)
+    {
+        Map<String, Object> span = orgChartIndex.span(id);
+        if (span == null) return notFound(id);
+        return ResponseEntity.ok().body(span);
+    }
+
+    @RequestMapping("/org/{id}/depth")
+    public ResponseEntity<?> getDepth(@PathVariable Long id)
+    {
+        Integer depth = orgChartIndex.depth(id);
+        if (depth == null) return notFound(id);
+        return ResponseEntity.ok().body(Map.of("employeeId", id, "depth", depth));
+    }
+
+    private ResponseEntity<?> notFound(Long id)
+    {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Employee not found with ID: " + id);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ems.backend.Controllers;
+
+import com.ems.backend.DTO.PayrollRunRequest;
+import com.ems.backend.Services.PayrollRunService;
+import com.ems.backend.Services.SalaryServices;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/api")
+public class PayrollController {
+
+    @Autowired
+    PayrollRunService payrollRunService;
+
+    @Autowired
+    SalaryServices salaryServices;
+
+    @RequestMapping(value = "/payroll/runs", method = RequestMethod.POST)
+    public ResponseEntity<?> startRun(@RequestBody PayrollRunRequest data,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+    {
+        return payrollRunService.startRun(data.getMonth(), data.getYear(), idempotencyKey);
+    }
+
+    @RequestMapping(value = "/payroll/runs", method = RequestMethod.GET)
+    public ResponseEntity<?> getRecentRuns()
+    {
+        return payrollRunService.getRecentRuns();
+    }
+
+    @RequestMapping(value = "/payroll/runs/{id}", method = RequestMethod.GET)
+    public ResponseEntity<?> getRun(@PathVariable Long id)
+    {
+        return payrollRunService.getRun(id);
+    }
+
+    @RequestMapping(value = "/payroll/runs/{id}/resume", method = RequestMethod.POST)
+    public ResponseEntity<?> resumeRun(@PathVariable Long id)
+    {
+        return payrollRunService.resumeRun(id);
+    }
+
+    @RequestMapping(value = "/payroll/preview", method = RequestMethod.GET)
+    public ResponseEntity<?> previewPayroll()
+    {
+        return salaryServices.previewPayroll();
+    }
+}
@@ -8,6 +8,7 @@ import com.ems.backend.Repositories.EmployeeRepo;
 import com.ems.backend.Services.SalaryServices;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -42,7 +43,13 @@ public class SalaryController {
             salaries.setEmployee(emp);
         }
         System.out.println(data);
-        return salaryServices.submitStructure(salaries);
+        return salaryServices.submitStructure(salaries, data.getEffectiveFrom());
+    }
+
+    @RequestMapping("/salary-structures/employee/{id}/history")
+    public ResponseEntity<?> fetchSalaryHistory(@PathVariable Long id)
+    {
+        return salaryServices.fetchSalaryHistory(id);
     }
 
     @RequestMapping("/fetchAllSalaryStructures")
@@ -57,10 +64,19 @@ public class SalaryController {
     }
 
     @RequestMapping("/fetchAllPayslips")
-    public ResponseEntity<?> fetchAllPayslips()
+    public ResponseEntity<?> fetchAllPayslips(Authentication authentication)
     {
-        return salaryServices.fetchAllPayslips();
+        return salaryServices.fetchAllPayslips(authentication);
     }
 
-
+    @RequestMapping("/payslips/employee/{id}")
+    public ResponseEntity<?> fetchEmployeePayslips(@PathVariable Long id,
+                                                   @RequestParam(required = false) Integer year,
+                                                   @RequestParam(required = false) Integer month,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size,
+                                                   Authentication authentication)
+    {
+        return salaryServices.fetchEmployeePayslips(id, year, month, cursor, size, authentication);
+    }
 }
@@ -0,0 +1,11 @@
+package com.ems.backend.DTO;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusRequest {
+    private List<Long> ids;
+    private String status;
+}
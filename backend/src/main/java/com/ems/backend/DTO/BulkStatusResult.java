@@ -0,0 +1,18 @@
+package com.ems.backend.DTO;
+
+import com.ems.backend.Models.LeaveStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome for one id of a bulk status change: UPDATED, NOT_FOUND or INVALID_TRANSITION,
+ * with the status the request has after the call. A request decided concurrently shows up as
+ * INVALID_TRANSITION with the status it was moved to.
+ */
+@Data
+@AllArgsConstructor
+public class BulkStatusResult {
+    private Long id;
+    private String outcome;
+    private LeaveStatus status;
+}
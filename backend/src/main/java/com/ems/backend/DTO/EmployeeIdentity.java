@@ -0,0 +1,8 @@
+package com.ems.backend.DTO;
+
+/**
+ * The few employee columns needed to authenticate and authorize a request.
+ */
+public record EmployeeIdentity(Long id, String officialEmail, String emailId, String role, String status,
+                               String passwordHash, int tokenVersion) {
+}
@@ -0,0 +1,44 @@
+package com.ems.backend.DTO;
+
+import com.ems.backend.Models.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Lightweight employee row for listings. Never carries the document or picture columns.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeSummary {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String emailId;
+    private String officialEmail;
+    private String mobileNumber;
+    private String role;
+    private String status;
+    private Date dateOfJoining;
+    private Long managerId;
+    private boolean payRoll;
+
+    public static EmployeeSummary of(Employee employee) {
+        return new EmployeeSummary(
+                employee.getId(),
+                employee.getFirstName(),
+                employee.getLastName(),
+                employee.getEmailId(),
+                employee.getOfficialEmail(),
+                employee.getMobileNumber(),
+                employee.getRole(),
+                employee.getStatus(),
+                employee.getDateOfJoining(),
+                employee.getManager() == null ? null : employee.getManager().getId(),
+                employee.isPayRoll()
+        );
+    }
+}
@@ -2,11 +2,15 @@ package com.ems.backend.DTO;
 import com.ems.backend.Models.Leave;
 import com.ems.backend.Models.LeaveStatus;
 import com.ems.backend.Models.LeaveType;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.Date;
 
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class LeaveDTO {
     private Long id;
     private Long employee_id;
@@ -19,7 +23,7 @@ public class LeaveDTO {
     private String emailId;
     private String name;
     private Long manager_id;
-    private byte[] attachment;
+    private String attachment;
 
     public LeaveDTO(Leave leave) {
         this.id = leave.getId();
@@ -32,6 +36,7 @@ public class LeaveDTO {
         this.reason = leave.getReason();
         this.emailId = leave.getEmployee().getEmailId();
         this.name=  leave.getEmployee().getFirstName()+" "+leave.getEmployee().getLastName();
-        this.manager_id = leave.getEmployee().getManager().getId();
+        this.manager_id = leave.getEmployee().getManager() == null ? null : leave.getEmployee().getManager().getId();
+        this.attachment = leave.getAttachmentRef();
     }
 }
@@ -0,0 +1,9 @@
+package com.ems.backend.DTO;
+
+import lombok.Data;
+
+@Data
+public class PayrollRunRequest {
+    private Integer month;
+    private Integer year;
+}
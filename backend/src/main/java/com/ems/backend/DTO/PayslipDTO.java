@@ -0,0 +1,54 @@
+package com.ems.backend.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat payslip row read from the payslip's own snapshot: who it was issued to and what was paid.
+ * Amounts are in rupees; they are null on old payslips that were never snapshotted.
+ */
+@Data
+@NoArgsConstructor
+public class PayslipDTO {
+    private Long id;
+    private Long employeeId;
+    private String employeeName;
+    private String role;
+    private Integer month;
+    private Integer year;
+    private LocalDateTime generatedOn;
+    private BigDecimal basic;
+    private BigDecimal hra;
+    private BigDecimal specialAllowance;
+    private BigDecimal grossEarnings;
+    private BigDecimal professionalTax;
+    private BigDecimal providentFund;
+    private BigDecimal netSalary;
+
+    // Snapshot amounts are stored in paise.
+    public PayslipDTO(Long id, Long employeeId, String employeeName, String role, Integer month, Integer year,
+                      LocalDateTime generatedOn, Long basic, Long hra, Long specialAllowance, Long grossEarnings,
+                      Long professionalTax, Long providentFund, Long netSalary) {
+        this.id = id;
+        this.employeeId = employeeId;
+        this.employeeName = employeeName;
+        this.role = role;
+        this.month = month;
+        this.year = year;
+        this.generatedOn = generatedOn;
+        this.basic = rupees(basic);
+        this.hra = rupees(hra);
+        this.specialAllowance = rupees(specialAllowance);
+        this.grossEarnings = rupees(grossEarnings);
+        this.professionalTax = rupees(professionalTax);
+        this.providentFund = rupees(providentFund);
+        this.netSalary = rupees(netSalary);
+    }
+
+    private static BigDecimal rupees(Long paise) {
+        return paise == null ? null : BigDecimal.valueOf(paise, 2);
+    }
+}
@@ -4,6 +4,8 @@ import com.ems.backend.Models.Employee;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDate;
+
 @Data
 public class SalaryDTO {
     private Double providentFund;
@@ -15,4 +17,6 @@ public class SalaryDTO {
     private Double grossEarnings;
     private Double professionalTax;
     private Double netSalary;
+    // First day the structure applies; today when omitted.
+    private LocalDate effectiveFrom;
 }
@@ -3,6 +3,7 @@ package com.ems.backend.Models;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
@@ -19,7 +20,13 @@ import java.util.List;
 @Setter
 @Getter
 @Entity
-@Table(name = "employee")
+@Table(name = "employee", indexes = {
+        @Index(name = "idx_employee_official_email", columnList = "officialEmail"),
+        @Index(name = "idx_employee_email_id", columnList = "emailId"),
+        @Index(name = "idx_employee_status_role", columnList = "status, role"),
+        @Index(name = "idx_employee_first_name", columnList = "firstName, id"),
+        @Index(name = "idx_employee_last_name", columnList = "lastName, id")
+})
 public class Employee implements UserDetails {
 
     @Id
@@ -37,10 +44,12 @@ public class Employee implements UserDetails {
     private BigDecimal salary;
     private String emailId;
     private String role;
-    @Lob
-    private byte[] aadhaarPan;
-    @Lob
-    private byte[] profilePic;
+    // Blob store hashes; the files themselves live outside the row.
+    // Kept under the old JSON names so existing clients can still test for presence.
+    @JsonProperty("aadhaarPan")
+    private String aadhaarPanRef;
+    @JsonProperty("profilePic")
+    private String profilePicRef;
     private String officialEmail;
     @Temporal(TemporalType.DATE)
     private Date orientationDate;
@@ -50,6 +59,10 @@ public class Employee implements UserDetails {
     private boolean exitInterview;
     private boolean payRoll;
 
+    // Bumped whenever the role changes or the password is reset, invalidating older JWTs.
+    @JsonIgnore
+    private int tokenVersion;
+
     // Relationship with Salaries
     @OneToOne(mappedBy = "employee")
     @JsonBackReference(value = "salary_struct-ref")
@@ -5,16 +5,19 @@ package com.ems.backend.Models;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Setter;
 
-import java.util.Arrays;
 import java.util.Date;
 
 
 @Entity
 @Getter
 @Setter
-@Table(name = "leaves")
+@Table(name = "leaves", indexes = {
+        @Index(name = "idx_leaves_employee_status_start", columnList = "employee_id, status, startDate"),
+        @Index(name = "idx_leaves_status_id", columnList = "status, id")
+})
 public class Leave {
 
     @Id
@@ -50,8 +53,14 @@ public class Leave {
     @Column(columnDefinition = "TEXT")
     private String reason;
 
-    @Lob
-    private byte[] attachment;
+    // Blob store hash of the optional attachment.
+    private String attachmentRef;
+
+    // Optimistic lock; status transitions also bump it in their conditional UPDATE.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
     @PrePersist
     protected void onCreate() {
@@ -72,7 +81,8 @@ public class Leave {
                 ", endDate=" + endDate +
                 ", submittedDate=" + submittedDate +
                 ", reason='" + reason + '\'' +
-                ", attachment=" + Arrays.toString(attachment) +
+                ", attachmentRef='" + attachmentRef + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.ems.backend.Models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Running totals of the {@link LeaveLedgerEntry} rows for one employee, leave type and year.
+ * Updated in the same transaction as every ledger append.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "leave_balances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_leave_balance", columnNames = {"employee_id", "leaveType", "leave_year"})
+})
+public class LeaveBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LeaveType leaveType;
+
+    @Column(name = "leave_year", nullable = false)
+    private int year;
+
+    private int accrued;
+
+    private int pending;
+
+    private int used;
+
+    public int getAvailable() {
+        return accrued - pending - used;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ems.backend.Models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * One append-only movement of leave days for an employee, leave type and year.
+ * The signed day columns say which bucket of the matching {@link LeaveBalance} moved,
+ * so summing the ledger always reproduces the balance.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "leave_ledger", indexes = {
+        @Index(name = "idx_leave_ledger_employee_type_year", columnList = "employee_id, leaveType, leave_year"),
+        @Index(name = "idx_leave_ledger_leave", columnList = "leave_id")
+})
+public class LeaveLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false, updatable = false)
+    private Long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LeaveType leaveType;
+
+    @Column(name = "leave_year", nullable = false, updatable = false)
+    private int year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LedgerEntryType entryType;
+
+    @Column(updatable = false)
+    private int accruedDays;
+
+    @Column(updatable = false)
+    private int pendingDays;
+
+    @Column(updatable = false)
+    private int usedDays;
+
+    // The leave request that caused the movement; null for accruals.
+    @Column(name = "leave_id", updatable = false)
+    private Long leaveId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = new Date();
+    }
+}
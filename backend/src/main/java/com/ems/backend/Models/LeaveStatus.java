@@ -5,5 +5,20 @@ public enum LeaveStatus {
     PENDING,
     APPROVED,
     REJECTED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    /**
+     * Pending requests can be decided or withdrawn; approved leave can still be cancelled.
+     * Rejected and cancelled requests are final.
+     */
+    public boolean canTransitionTo(LeaveStatus target) {
+        switch (this) {
+            case PENDING:
+                return target == APPROVED || target == REJECTED || target == CANCELLED;
+            case APPROVED:
+                return target == CANCELLED;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ems.backend.Models;
+
+
+public enum LedgerEntryType {
+    ACCRUAL,
+    RESERVE,
+    RELEASE,
+    DEBIT,
+    REVERSAL,
+    ADJUSTMENT
+}
@@ -0,0 +1,72 @@
+package com.ems.backend.Models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * A row of the outbound mail queue. Messages are written here first and delivered
+ * by the mail workers, so callers never wait on the SMTP server.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "idx_mail_outbox_status_next", columnList = "status, nextAttemptAt")
+})
+public class MailMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(columnDefinition = "MEDIUMTEXT", nullable = false)
+    private String body;
+
+    // Body carries a secret (an OTP); it is blanked once the message is sent or dead.
+    @ColumnDefault("false")
+    private boolean sensitive;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MailStatus status;
+
+    private int attempts;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date nextAttemptAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = new Date();
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+        if (this.status == null) {
+            this.status = MailStatus.PENDING;
+        }
+    }
+}
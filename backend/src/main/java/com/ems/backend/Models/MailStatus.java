@@ -0,0 +1,9 @@
+package com.ems.backend.Models;
+
+
+public enum MailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,60 @@
+package com.ems.backend.Models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * One payroll run for a month. The eligible employees are split into {@link PayrollRunChunk}s
+ * when the run starts; the counters here are advanced in the same transaction that writes
+ * each chunk's payslips, so they always match what is in the payslips table.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "payroll_runs", indexes = {
+        @Index(name = "idx_payroll_run_period", columnList = "year, month, status")
+})
+public class PayrollRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer month;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PayrollRunStatus status;
+
+    // Client supplied Idempotency-Key; a retried request with the same key gets this run back.
+    @Column(length = 100, unique = true)
+    private String idempotencyKey;
+
+    private int chunkSize;
+    private int totalChunks;
+    private int completedChunks;
+    private int totalEmployees;
+    private int processedEmployees;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = new Date();
+    }
+}
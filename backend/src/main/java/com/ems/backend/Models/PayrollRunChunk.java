@@ -0,0 +1,41 @@
+package com.ems.backend.Models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A contiguous employee id range of a payroll run. A chunk is marked done in the transaction
+ * that inserts its payslips, which is the checkpoint a resumed run starts from.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "payroll_run_chunks", indexes = {
+        @Index(name = "idx_payroll_chunk_run_done", columnList = "run_id, done, chunkNo")
+})
+public class PayrollRunChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    private int chunkNo;
+
+    // Inclusive bounds; only employees still eligible when the chunk runs get a payslip.
+    private Long firstEmployeeId;
+    private Long lastEmployeeId;
+
+    // Eligible employees in the range when the run was planned.
+    private int employees;
+
+    private boolean done;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date processedAt;
+}
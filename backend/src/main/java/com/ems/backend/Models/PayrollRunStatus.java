@@ -0,0 +1,7 @@
+package com.ems.backend.Models;
+
+public enum PayrollRunStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -4,7 +4,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payslips")
+@Table(name = "payslips", uniqueConstraints = {
+        // One payslip per employee and month; generation skips months that already have one.
+        @UniqueConstraint(name = "uk_payslip_user_period", columnNames = {"user_id", "year", "month"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,20 +24,18 @@ public class Payslip {
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private Employee user;
 
-    @ManyToOne
-    @JoinColumn(name = "salary_id", referencedColumnName = "id")
-    private Salaries salary;
-
-    @Column(length = 20)
-    private String month;
+    // 1-12
+    @Column(nullable = false)
+    private Integer month;
 
     @Override
     public String toString() {
         return "Payslip{" +
                 "id=" + id +
                 ", user=" + user +
-                ", salary=" + salary +
-                ", month='" + month + '\'' +
+                ", structureVersionId=" + structureVersionId +
+                ", netSalary=" + netSalary +
+                ", month=" + month +
                 ", year=" + year +
                 ", generatedOn=" + generatedOn +
                 '}';
@@ -45,6 +46,28 @@ public class Payslip {
     @Column(name = "generated_on", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime generatedOn;
 
+    /*
+     * Snapshot taken when the payslip is generated, so it reads back without joins and keeps
+     * showing what was paid after the salary structure or the employee record changes.
+     * Amounts are in paise.
+     */
+    @Column(name = "structure_version_id")
+    private Long structureVersionId;
+
+    @Column(length = 200)
+    private String employeeName;
+
+    private String role;
+
+    private Long basic;
+    private Long hra;
+    private Long specialAllowance;
+    private Long grossEarnings;
+    private Long providentFund;
+    private Long employerProvidentFund;
+    private Long professionalTax;
+    private Long netSalary;
+
     @PrePersist
     public void prePersist() {
         this.generatedOn = LocalDateTime.now();
@@ -3,6 +3,7 @@ package com.ems.backend.Models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -76,6 +77,12 @@ public class PerformanceReview {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; clients send back the version they read.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public PerformanceReview(Long emp, Date reviewPeriodStart, Date reviewPeriodEnd) {
         this.employeeId = emp;
         this.reviewPeriodStart = reviewPeriodStart;
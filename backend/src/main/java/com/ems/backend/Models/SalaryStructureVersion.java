@@ -0,0 +1,55 @@
+package com.ems.backend.Models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * One effective-dated version of an employee's salary structure, as computed by the payroll engine.
+ * Versions of an employee do not overlap: submitting a new structure closes the open version the
+ * day before the new one starts; an employee has at most one version per start date. Amounts are
+ * monthly, in paise.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "salary_structure_versions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_salary_version_employee_from", columnNames = {"employee_id", "effectiveFrom"})
+})
+public class SalaryStructureVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(nullable = false)
+    private LocalDate effectiveFrom;
+
+    // Inclusive; null while this is the employee's latest version.
+    private LocalDate effectiveTo;
+
+    private long monthlyCtc;
+    private long basic;
+    private long hra;
+    private long specialAllowance;
+    private long grossEarnings;
+    private long providentFund;
+    private long employerProvidentFund;
+    private long professionalTax;
+    private long netSalary;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = new Date();
+    }
+}
@@ -1,15 +1,53 @@
 package com.ems.backend.Repositories;
 
+import com.ems.backend.DTO.EmployeeIdentity;
 import com.ems.backend.Models.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface EmployeeRepo extends JpaRepository<Employee, Long> {
+public interface EmployeeRepo extends JpaRepository<Employee, Long>, EmployeeRepoCustom {
 
     Employee findByEmailId(String emailId);
     Employee findByOfficialEmail(String officialEmail);
     List<Employee> findByManagerId(Long managerId);
+
+    @Query("select new com.ems.backend.DTO.EmployeeIdentity(e.id, e.officialEmail, e.emailId, e.role, e.status, e.password, e.tokenVersion) " +
+            "from Employee e where e.id = :id")
+    Optional<EmployeeIdentity> findIdentityById(@Param("id") Long id);
+
+    @Query("select new com.ems.backend.DTO.EmployeeIdentity(e.id, e.officialEmail, e.emailId, e.role, e.status, e.password, e.tokenVersion) " +
+            "from Employee e where e.officialEmail = :email order by e.id")
+    List<EmployeeIdentity> findIdentitiesByOfficialEmail(@Param("email") String officialEmail);
+
+    @Query("select new com.ems.backend.DTO.EmployeeIdentity(e.id, e.officialEmail, e.emailId, e.role, e.status, e.password, e.tokenVersion) " +
+            "from Employee e where e.emailId = :email order by e.id")
+    List<EmployeeIdentity> findIdentitiesByEmailId(@Param("email") String emailId);
+
+    @Query("select e.officialEmail from Employee e where e.officialEmail in :emails")
+    List<String> findExistingOfficialEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select e.emailId from Employee e where e.emailId in :emails")
+    List<String> findExistingEmailIds(@Param("emails") Collection<String> emails);
+
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select e.emailId, e.id from Employee e where e.emailId in :emails")
+    List<Object[]> findIdsByEmailIdIn(@Param("emails") Collection<String> emailIds);
+
+    @Query("select e.id, m.id from Employee e left join e.manager m")
+    List<Object[]> findAllManagerLinks();
+
+    @Query("select e.profilePicRef from Employee e where e.id = :id")
+    String findProfilePicRefById(@Param("id") Long id);
+
+    @Query("select e.aadhaarPanRef from Employee e where e.id = :id")
+    String findAadhaarPanRefById(@Param("id") Long id);
 }
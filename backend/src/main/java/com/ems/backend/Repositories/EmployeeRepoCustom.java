@@ -0,0 +1,24 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.DTO.EmployeeSummary;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EmployeeRepoCustom {
+
+    /**
+     * Keyset-paginated listing of employee summaries ordered by (sortField, id).
+     * afterKey/afterId are the sort value and id of the last row of the previous page; afterId is null for the
+     * first page, and afterKey is null when the last row had no value in the sort column.
+     * sortField must be one of {@link EmployeeRepoImpl#SORTABLE_FIELDS}.
+     */
+    List<EmployeeSummary> findSummaries(String status, String role, String sortField, boolean descending,
+                                        String afterKey, Long afterId, int limit);
+
+    /**
+     * Writes only the given columns with a single UPDATE. Field names must already be validated.
+     * When revokeTokens is set the employee's token version is bumped in the same statement.
+     */
+    int updateFields(Long id, Map<String, Object> values, boolean revokeTokens);
+}
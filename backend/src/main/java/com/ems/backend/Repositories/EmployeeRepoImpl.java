@@ -0,0 +1,102 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.DTO.EmployeeSummary;
+import com.ems.backend.Models.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class EmployeeRepoImpl implements EmployeeRepoCustom {
+
+    public static final Set<String> SORTABLE_FIELDS = Set.of("id", "firstName", "lastName", "emailId");
+
+    private static final String SUMMARY_SELECT =
+            "select new com.ems.backend.DTO.EmployeeSummary(" +
+            "e.id, e.firstName, e.lastName, e.emailId, e.officialEmail, e.mobileNumber, " +
+            "e.role, e.status, e.dateOfJoining, m.id, e.payRoll) " +
+            "from Employee e left join e.manager m where 1 = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EmployeeSummary> findSummaries(String status, String role, String sortField, boolean descending,
+                                               String afterKey, Long afterId, int limit) {
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortField);
+        }
+        boolean byId = "id".equals(sortField);
+        // The raw column is compared so the (field, id) indexes serve both the seek and the order.
+        // MySQL sorts NULLs first ascending and last descending, and the predicates below follow that.
+        String sortExpr = "e." + sortField;
+        String cmp = descending ? "<" : ">";
+        String dir = descending ? "desc" : "asc";
+
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT);
+        if (status != null) jpql.append(" and e.status = :status");
+        if (role != null) jpql.append(" and e.role = :role");
+        if (afterId != null) {
+            if (byId) {
+                jpql.append(" and e.id ").append(cmp).append(" :afterId");
+            } else if (afterKey == null) {
+                // Last row had no value: the rest of the NULL rows, then (ascending) every non-NULL row.
+                jpql.append(" and ((").append(sortExpr).append(" is null and e.id ").append(cmp).append(" :afterId)");
+                if (!descending) jpql.append(" or ").append(sortExpr).append(" is not null");
+                jpql.append(")");
+            } else {
+                jpql.append(" and (").append(sortExpr).append(' ').append(cmp).append(" :afterKey")
+                        .append(" or (").append(sortExpr).append(" = :afterKey and e.id ").append(cmp).append(" :afterId)");
+                if (descending) jpql.append(" or ").append(sortExpr).append(" is null");
+                jpql.append(")");
+            }
+        }
+        jpql.append(" order by ");
+        if (!byId) jpql.append(sortExpr).append(' ').append(dir).append(", ");
+        jpql.append("e.id ").append(dir);
+
+        TypedQuery<EmployeeSummary> query = entityManager.createQuery(jpql.toString(), EmployeeSummary.class);
+        if (status != null) query.setParameter("status", status);
+        if (role != null) query.setParameter("role", role);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (!byId && afterKey != null) query.setParameter("afterKey", afterKey);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int updateFields(Long id, Map<String, Object> values, boolean revokeTokens) {
+        if (values.isEmpty() && !revokeTokens) {
+            return 0;
+        }
+        StringBuilder jpql = new StringBuilder("update Employee e set ");
+        int i = 0;
+        for (String field : values.keySet()) {
+            if (i > 0) jpql.append(", ");
+            jpql.append("e.").append(field).append(" = :v").append(i++);
+        }
+        if (revokeTokens) {
+            if (i > 0) jpql.append(", ");
+            jpql.append("e.tokenVersion = e.tokenVersion + 1");
+        }
+        jpql.append(" where e.id = :id");
+
+        Query query = entityManager.createQuery(jpql.toString());
+        i = 0;
+        for (Object value : values.values()) {
+            // Association values arrive as id-only stubs; bind a managed reference instead.
+            if (value instanceof Employee stub) {
+                value = entityManager.getReference(Employee.class, stub.getId());
+            }
+            query.setParameter("v" + i++, value);
+        }
+        return query.setParameter("id", id).executeUpdate();
+    }
+}
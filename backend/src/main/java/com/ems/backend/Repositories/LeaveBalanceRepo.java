@@ -0,0 +1,42 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.Models.LeaveBalance;
+import com.ems.backend.Models.LeaveType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LeaveBalanceRepo extends JpaRepository<LeaveBalance, Long> {
+
+    List<LeaveBalance> findByEmployeeIdAndYear(Long employeeId, int year);
+
+    List<LeaveBalance> findByEmployeeId(Long employeeId);
+
+    @Query("select b.employeeId, b.leaveType, b.year from LeaveBalance b where b.employeeId in :employeeIds")
+    List<Object[]> findKeysByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
+    /**
+     * Creates the balance row with its opening accrual; returns 0 if it already exists.
+     */
+    @Modifying
+    @Query(value = "insert ignore into leave_balances (employee_id, leave_type, leave_year, accrued, pending, used) " +
+            "values (:employeeId, :leaveType, :year, :accrued, 0, 0)", nativeQuery = true)
+    int createIfAbsent(@Param("employeeId") Long employeeId, @Param("leaveType") String leaveType,
+                       @Param("year") int year, @Param("accrued") int accrued);
+
+    @Modifying
+    @Query("update LeaveBalance b set b.accrued = b.accrued + :accrued, b.pending = b.pending + :pending, " +
+            "b.used = b.used + :used where b.employeeId = :employeeId and b.leaveType = :leaveType and b.year = :year")
+    int addDeltas(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType, @Param("year") int year,
+                  @Param("accrued") int accrued, @Param("pending") int pending, @Param("used") int used);
+
+    @Modifying
+    @Query("update LeaveBalance b set b.accrued = :accrued, b.pending = :pending, b.used = :used " +
+            "where b.employeeId = :employeeId and b.leaveType = :leaveType and b.year = :year")
+    int overwrite(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType, @Param("year") int year,
+                  @Param("accrued") int accrued, @Param("pending") int pending, @Param("used") int used);
+}
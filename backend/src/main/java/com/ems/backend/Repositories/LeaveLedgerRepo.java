@@ -0,0 +1,20 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.Models.LeaveLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface LeaveLedgerRepo extends JpaRepository<LeaveLedgerEntry, Long> {
+
+    /**
+     * Ledger totals per (employeeId, leaveType, year) as [employeeId, leaveType, year, accrued, pending, used].
+     * A null employeeId sums the whole ledger.
+     */
+    @Query("select l.employeeId, l.leaveType, l.year, sum(l.accruedDays), sum(l.pendingDays), sum(l.usedDays) " +
+            "from LeaveLedgerEntry l where (:employeeId is null or l.employeeId = :employeeId) " +
+            "group by l.employeeId, l.leaveType, l.year")
+    List<Object[]> sumByBalance(@Param("employeeId") Long employeeId);
+}
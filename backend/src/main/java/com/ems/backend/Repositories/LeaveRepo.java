@@ -1,10 +1,61 @@
 package com.ems.backend.Repositories;
 
+import com.ems.backend.DTO.LeaveDTO;
 import com.ems.backend.Models.Leave;
+import com.ems.backend.Models.LeaveStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
-public interface LeaveRepo extends JpaRepository<Leave,Long> {
+public interface LeaveRepo extends JpaRepository<Leave,Long>, LeaveRepoCustom {
     List<Leave> findByEmployeeId(Long employeeId);
+
+    @Query("select l.id, l.startDate, l.endDate from Leave l where l.employee.id = :employeeId " +
+            "and l.status in :statuses and l.startDate <= :end and l.endDate >= :start")
+    List<Object[]> findOverlappingIntervals(@Param("employeeId") Long employeeId, @Param("statuses") Collection<LeaveStatus> statuses,
+                                            @Param("start") Date start, @Param("end") Date end);
+
+    @Query("select l.id, l.startDate, l.endDate from Leave l where l.employee.id = :employeeId and l.status in :statuses")
+    List<Object[]> findIntervals(@Param("employeeId") Long employeeId, @Param("statuses") Collection<LeaveStatus> statuses);
+
+    @Query("select l.id, e.id, e.firstName, e.lastName, l.status, l.startDate, l.endDate from Leave l join l.employee e " +
+            "where l.status in :statuses and l.endDate >= :since")
+    List<Object[]> findCalendarRows(@Param("statuses") Collection<LeaveStatus> statuses, @Param("since") Date since);
+
+    @Query("select l.id, l.status, l.leaveType, l.startDate, l.endDate, e.id, e.firstName, e.lastName " +
+            "from Leave l join l.employee e where l.id in :ids")
+    List<Object[]> findTransitionRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves every listed leave that is still in the from status; returns how many rows changed.
+     */
+    @Modifying
+    @Query("update Leave l set l.status = :to, l.version = l.version + 1 where l.id in :ids and l.status = :from")
+    int transitionAll(@Param("ids") Collection<Long> ids, @Param("from") LeaveStatus from, @Param("to") LeaveStatus to);
+
+    @Query("select new com.ems.backend.DTO.LeaveDTO(" +
+            "l.id, e.id, l.leaveType, l.status, l.startDate, l.endDate, l.submittedDate, l.reason, " +
+            "e.emailId, concat(coalesce(e.firstName, ''), ' ', coalesce(e.lastName, '')), m.id, l.attachmentRef) " +
+            "from Leave l join l.employee e left join e.manager m where l.id = :id")
+    LeaveDTO findLeaveView(@Param("id") Long id);
+
+    /**
+     * Row-locks the listed leaves until the transaction ends and returns their current (id, status),
+     * read by the locking read itself rather than from the transaction's snapshot.
+     * Rows are locked in id order so concurrent bulk changes cannot deadlock each other.
+     */
+    @Query(value = "select id, status from leaves where id in (:ids) order by id for update", nativeQuery = true)
+    List<Object[]> lockStatuses(@Param("ids") Collection<Long> ids);
+
+    @Query("select l.status, count(l) from Leave l join l.employee e left join e.manager m " +
+            "where :managerId is null or m.id = :managerId group by l.status")
+    List<Object[]> countByStatus(@Param("managerId") Long managerId);
+
+    @Query("select l.attachmentRef from Leave l where l.id = :id")
+    String findAttachmentRefById(@Param("id") Long id);
 }
@@ -0,0 +1,19 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.DTO.LeaveDTO;
+import com.ems.backend.Models.LeaveStatus;
+import com.ems.backend.Models.LeaveType;
+
+import java.util.Date;
+import java.util.List;
+
+public interface LeaveRepoCustom {
+
+    /**
+     * Leave requests as {@link LeaveDTO} projections, newest first (by id), in one joined query.
+     * Every filter is optional; from/to keep leaves that overlap the range. afterId is the id of the
+     * last row of the previous page, or null for the first page. A limit of 0 returns every match.
+     */
+    List<LeaveDTO> findLeaveViews(Long managerId, LeaveStatus status, LeaveType leaveType,
+                                  Date from, Date to, Long afterId, int limit);
+}
@@ -0,0 +1,47 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.DTO.LeaveDTO;
+import com.ems.backend.Models.LeaveStatus;
+import com.ems.backend.Models.LeaveType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.Date;
+import java.util.List;
+
+public class LeaveRepoImpl implements LeaveRepoCustom {
+
+    // Employee and manager columns come from the joins, so no entity (or attachment) is ever loaded.
+    private static final String VIEW_SELECT =
+            "select new com.ems.backend.DTO.LeaveDTO(" +
+            "l.id, e.id, l.leaveType, l.status, l.startDate, l.endDate, l.submittedDate, l.reason, " +
+            "e.emailId, concat(coalesce(e.firstName, ''), ' ', coalesce(e.lastName, '')), m.id, l.attachmentRef) " +
+            "from Leave l join l.employee e left join e.manager m where 1 = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LeaveDTO> findLeaveViews(Long managerId, LeaveStatus status, LeaveType leaveType,
+                                         Date from, Date to, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(VIEW_SELECT);
+        if (managerId != null) jpql.append(" and m.id = :managerId");
+        if (status != null) jpql.append(" and l.status = :status");
+        if (leaveType != null) jpql.append(" and l.leaveType = :leaveType");
+        if (from != null) jpql.append(" and l.endDate >= :from");
+        if (to != null) jpql.append(" and l.startDate <= :to");
+        if (afterId != null) jpql.append(" and l.id < :afterId");
+        jpql.append(" order by l.id desc");
+
+        TypedQuery<LeaveDTO> query = entityManager.createQuery(jpql.toString(), LeaveDTO.class);
+        if (managerId != null) query.setParameter("managerId", managerId);
+        if (status != null) query.setParameter("status", status);
+        if (leaveType != null) query.setParameter("leaveType", leaveType);
+        if (from != null) query.setParameter("from", from);
+        if (to != null) query.setParameter("to", to);
+        if (afterId != null) query.setParameter("afterId", afterId);
+        if (limit > 0) query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
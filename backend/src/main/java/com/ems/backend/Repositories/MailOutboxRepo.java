@@ -0,0 +1,58 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.Models.MailMessage;
+import com.ems.backend.Models.MailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface MailOutboxRepo extends JpaRepository<MailMessage, Long> {
+
+    long countByStatus(MailStatus status);
+
+    @Query("select m.id from MailMessage m where m.status = com.ems.backend.Models.MailStatus.PENDING " +
+            "and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") Date now, Pageable page);
+
+    /**
+     * Moves a pending message to SENDING; returns 0 when another worker already took it.
+     */
+    @Transactional
+    @Modifying
+    @Query("update MailMessage m set m.status = com.ems.backend.Models.MailStatus.SENDING, " +
+            "m.attempts = m.attempts + 1, m.lastAttemptAt = :now " +
+            "where m.id = :id and m.status = com.ems.backend.Models.MailStatus.PENDING")
+    int claim(@Param("id") Long id, @Param("now") Date now);
+
+    // Sensitive bodies are blanked here and in markDead, once the message reaches a final state.
+    @Transactional
+    @Modifying
+    @Query("update MailMessage m set m.status = com.ems.backend.Models.MailStatus.SENT, m.sentAt = :now, " +
+            "m.lastError = null, m.body = case when m.sensitive = true then '' else m.body end where m.id = :id")
+    int markSent(@Param("id") Long id, @Param("now") Date now);
+
+    @Transactional
+    @Modifying
+    @Query("update MailMessage m set m.status = com.ems.backend.Models.MailStatus.PENDING, " +
+            "m.nextAttemptAt = :nextAttemptAt, m.lastError = :error where m.id = :id")
+    int markRetry(@Param("id") Long id, @Param("nextAttemptAt") Date nextAttemptAt, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("update MailMessage m set m.status = com.ems.backend.Models.MailStatus.DEAD, m.lastError = :error, " +
+            "m.body = case when m.sensitive = true then '' else m.body end where m.id = :id")
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    // Releases messages left in SENDING by a worker that died mid-delivery.
+    @Transactional
+    @Modifying
+    @Query("update MailMessage m set m.status = com.ems.backend.Models.MailStatus.PENDING " +
+            "where m.status = com.ems.backend.Models.MailStatus.SENDING and m.lastAttemptAt < :before")
+    int releaseStale(@Param("before") Date before);
+}
@@ -0,0 +1,37 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.DTO.PayslipDTO;
+import com.ems.backend.Models.Payslip;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PaySlipRepoCustom {
+
+    /**
+     * Issues payslips for the given employees and months in JDBC batches, each a snapshot of the
+     * salary structure version in effect at the end of its month. Months an employee already has
+     * a payslip for, or has no structure in effect for, are skipped. Only the user, month and year
+     * of each payslip are read.
+     */
+    void upsertAll(List<Payslip> payslips);
+
+    /**
+     * Issues the month's payslips for the active employees with ids in [first, last] in one
+     * INSERT ... SELECT, snapshotting the structure version in effect on asOf. Payslips that
+     * already exist are left untouched. Returns how many were newly issued.
+     */
+    int generateForRange(Long first, Long last, int month, int year, LocalDate asOf);
+
+    /**
+     * One employee's payslips as {@link PayslipDTO} projections, newest month first, read along the
+     * (user_id, year, month) key. year and month are optional filters. after is the (year, month)
+     * of the last row of the previous page, or null for the first page.
+     */
+    List<PayslipDTO> findEmployeePayslips(Long employeeId, Integer year, Integer month, int[] after, int limit);
+
+    /**
+     * Every payslip as a {@link PayslipDTO}, newest first, read from the payslips table alone.
+     */
+    List<PayslipDTO> findAllPayslipViews();
+}
@@ -0,0 +1,99 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.DTO.PayslipDTO;
+import com.ems.backend.Models.Payslip;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public class PaySlipRepoImpl implements PaySlipRepoCustom {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Copies the employee and the structure version in effect on the date into the payslip row.
+    // A duplicate (user, year, month) is a no-op, so issued payslips never change.
+    private static final String SNAPSHOT_INSERT =
+            "insert into payslips (user_id, month, year, generated_on, structure_version_id, employee_name, role, " +
+            "basic, hra, special_allowance, gross_earnings, provident_fund, employer_provident_fund, " +
+            "professional_tax, net_salary) " +
+            "select e.id, ?, ?, ?, v.id, trim(concat(coalesce(e.first_name, ''), ' ', coalesce(e.last_name, ''))), e.role, " +
+            "v.basic, v.hra, v.special_allowance, v.gross_earnings, v.provident_fund, v.employer_provident_fund, " +
+            "v.professional_tax, v.net_salary " +
+            "from employee e join salary_structure_versions v on v.employee_id = e.id " +
+            "and v.effective_from <= ? and (v.effective_to is null or v.effective_to >= ?) ";
+
+    private static final String DUPLICATE_NO_OP = " on duplicate key update payslip_id = payslip_id";
+
+    private static final String VIEW_SELECT =
+            "select new com.ems.backend.DTO.PayslipDTO(" +
+            "p.id, p.user.id, p.employeeName, p.role, p.month, p.year, p.generatedOn, " +
+            "p.basic, p.hra, p.specialAllowance, p.grossEarnings, p.professionalTax, p.providentFund, p.netSalary) " +
+            "from Payslip p";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaySlipRepoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(List<Payslip> payslips) {
+        if (payslips.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SNAPSHOT_INSERT + "where e.id = ?" + DUPLICATE_NO_OP,
+                payslips, BATCH_SIZE, (ps, payslip) -> {
+                    Date asOf = Date.valueOf(YearMonth.of(payslip.getYear(), payslip.getMonth()).atEndOfMonth());
+                    ps.setInt(1, payslip.getMonth());
+                    ps.setInt(2, payslip.getYear());
+                    ps.setTimestamp(3, now);
+                    ps.setDate(4, asOf);
+                    ps.setDate(5, asOf);
+                    ps.setLong(6, payslip.getUser().getId());
+                });
+    }
+
+    @Override
+    public int generateForRange(Long first, Long last, int month, int year, LocalDate asOf) {
+        Date date = Date.valueOf(asOf);
+        // Each new row counts 1; a duplicate left as is counts 0.
+        return jdbcTemplate.update(
+                SNAPSHOT_INSERT + "where e.id between ? and ? and e.status = 'Active'" + DUPLICATE_NO_OP,
+                month, year, Timestamp.valueOf(LocalDateTime.now()), date, date, first, last);
+    }
+
+    @Override
+    public List<PayslipDTO> findEmployeePayslips(Long employeeId, Integer year, Integer month, int[] after, int limit) {
+        // p.user.id is the payslip's own user_id column, so no join is needed.
+        StringBuilder jpql = new StringBuilder(VIEW_SELECT).append(" where p.user.id = :employeeId");
+        if (year != null) jpql.append(" and p.year = :year");
+        if (month != null) jpql.append(" and p.month = :month");
+        if (after != null) jpql.append(" and (p.year < :afterYear or (p.year = :afterYear and p.month < :afterMonth))");
+        jpql.append(" order by p.year desc, p.month desc");
+
+        TypedQuery<PayslipDTO> query = entityManager.createQuery(jpql.toString(), PayslipDTO.class);
+        query.setParameter("employeeId", employeeId);
+        if (year != null) query.setParameter("year", year);
+        if (month != null) query.setParameter("month", month);
+        if (after != null) {
+            query.setParameter("afterYear", after[0]);
+            query.setParameter("afterMonth", after[1]);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<PayslipDTO> findAllPayslipViews() {
+        return entityManager.createQuery(VIEW_SELECT + " order by p.id desc", PayslipDTO.class).getResultList();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.Models.PayrollRunChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface PayrollRunChunkRepo extends JpaRepository<PayrollRunChunk, Long> {
+
+    @Query("select c.id from PayrollRunChunk c where c.runId = :runId and c.done = false order by c.chunkNo")
+    List<Long> findPendingIds(@Param("runId") Long runId);
+
+    long countByRunIdAndDoneFalse(Long runId);
+
+    /**
+     * Marks the chunk done; returns 0 when it already was. Called in the transaction that
+     * writes the chunk's payslips, so the row lock also keeps two workers off the same chunk.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PayrollRunChunk c set c.done = true, c.processedAt = :now where c.id = :id and c.done = false")
+    int complete(@Param("id") Long id, @Param("now") Date now);
+}
@@ -0,0 +1,40 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.Models.PayrollRun;
+import com.ems.backend.Models.PayrollRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface PayrollRunRepo extends JpaRepository<PayrollRun, Long> {
+
+    List<PayrollRun> findByStatus(PayrollRunStatus status);
+
+    List<PayrollRun> findTop20ByOrderByIdDesc();
+
+    Optional<PayrollRun> findByIdempotencyKey(String idempotencyKey);
+
+    Optional<PayrollRun> findFirstByMonthAndYearAndStatus(Integer month, Integer year, PayrollRunStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("update PayrollRun r set r.completedChunks = r.completedChunks + 1, " +
+            "r.processedEmployees = r.processedEmployees + :employees where r.id = :id")
+    int addProgress(@Param("id") Long id, @Param("employees") int employees);
+
+    /**
+     * Moves the run out of the from status; returns 0 when it is no longer there.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PayrollRun r set r.status = :to, r.finishedAt = :now, r.lastError = :error " +
+            "where r.id = :id and r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") PayrollRunStatus from, @Param("to") PayrollRunStatus to,
+                   @Param("now") Date now, @Param("error") String error);
+}
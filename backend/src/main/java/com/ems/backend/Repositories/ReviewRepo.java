@@ -1,7 +1,12 @@
 package com.ems.backend.Repositories;
 
 import com.ems.backend.Models.PerformanceReview;
+import com.ems.backend.Models.ReviewStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,4 +14,13 @@ import java.util.Optional;
 public interface ReviewRepo extends JpaRepository<PerformanceReview, Long> {
     List<PerformanceReview> findByEmployeeId(Long employeeId);
     Optional<PerformanceReview> findTopByEmployeeIdOrderByCreatedAtDesc(Long employeeId);
+
+    /**
+     * Moves the review only if it is still in the from status; returns 0 when someone got there first.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PerformanceReview r set r.status = :to, r.version = r.version + 1 " +
+            "where r.reviewId = :id and r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReviewStatus from, @Param("to") ReviewStatus to);
 }
@@ -0,0 +1,33 @@
+package com.ems.backend.Repositories;
+
+import com.ems.backend.Models.SalaryStructureVersion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface SalaryStructureVersionRepo extends JpaRepository<SalaryStructureVersion, Long> {
+
+    /**
+     * Row-locks the employee until the transaction ends. Salary changes of one employee take this
+     * lock first, so they run one at a time even before the employee has any version to lock.
+     */
+    @Query(value = "select id from employee where id = :employeeId for update", nativeQuery = true)
+    Long lockEmployee(@Param("employeeId") Long employeeId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<SalaryStructureVersion> findTopByEmployeeIdOrderByEffectiveFromDesc(Long employeeId);
+
+    List<SalaryStructureVersion> findByEmployeeIdOrderByEffectiveFromDesc(Long employeeId);
+
+    // Employees that get a payslip for the period: active, with a structure in effect on the date.
+    @Query("select e.id from SalaryStructureVersion v join Employee e on e.id = v.employeeId " +
+            "where e.status = 'Active' and v.effectiveFrom <= :asOf " +
+            "and (v.effectiveTo is null or v.effectiveTo >= :asOf) order by e.id")
+    List<Long> findPayrollEmployeeIds(@Param("asOf") LocalDate asOf);
+}
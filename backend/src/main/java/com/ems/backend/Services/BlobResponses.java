@@ -0,0 +1,101 @@
+package com.ems.backend.Services;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Builds download responses for blobs: ETag revalidation, single byte-range requests,
+ * and a body copied with {@link FileChannel#transferTo} so the file never sits in the heap.
+ */
+public final class BlobResponses {
+
+    private BlobResponses() {
+    }
+
+    public static ResponseEntity<?> serve(BlobStore blobStore, String hash, String ifNoneMatch, String rangeHeader) {
+        if (hash == null || !blobStore.exists(hash)) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + hash + "\"";
+        // Blob URLs are per employee/leave and can change content, so clients revalidate with the ETag.
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        try {
+            long size = blobStore.size(hash);
+            MediaType contentType = MediaType.parseMediaType(blobStore.contentType(hash));
+            long start = 0;
+            long length = size;
+            HttpStatus status = HttpStatus.OK;
+
+            if (rangeHeader != null && !rangeHeader.isEmpty()) {
+                try {
+                    List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                    // Multipart byte ranges are not supported; those requests get the whole blob.
+                    if (ranges.size() == 1) {
+                        start = ranges.get(0).getRangeStart(size);
+                        // Ranges starting at or past the end (and any range on an empty blob) cannot be served.
+                        if (size == 0 || start < 0 || start >= size) {
+                            return rangeNotSatisfiable(size);
+                        }
+                        long end = Math.min(ranges.get(0).getRangeEnd(size), size - 1);
+                        length = end - start + 1;
+                        status = HttpStatus.PARTIAL_CONTENT;
+                    }
+                } catch (IllegalArgumentException e) {
+                    return rangeNotSatisfiable(size);
+                }
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .contentType(contentType)
+                    .contentLength(length)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (status == HttpStatus.PARTIAL_CONTENT) {
+                builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+            }
+
+            final long offset = start;
+            final long count = length;
+            StreamingResponseBody body = out -> {
+                try (FileChannel channel = blobStore.open(hash)) {
+                    WritableByteChannel target = Channels.newChannel(out);
+                    long position = offset;
+                    long remaining = count;
+                    while (remaining > 0) {
+                        long sent = channel.transferTo(position, remaining, target);
+                        if (sent <= 0) break;
+                        position += sent;
+                        remaining -= sent;
+                    }
+                }
+            };
+            return builder.body(body);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    private static ResponseEntity<?> rangeNotSatisfiable(long size) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                .build();
+    }
+}
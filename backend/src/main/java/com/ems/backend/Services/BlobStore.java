@@ -0,0 +1,31 @@
+package com.ems.backend.Services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Content-addressed storage for uploaded files. Entities only keep the returned hash;
+ * identical content is stored once.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams the content into the store and returns its SHA-256 hex digest.
+     */
+    String store(InputStream content) throws IOException;
+
+    boolean exists(String hash);
+
+    long size(String hash) throws IOException;
+
+    /**
+     * Best-effort content type sniffed from the first bytes of the blob.
+     */
+    String contentType(String hash) throws IOException;
+
+    /**
+     * Opens the blob for reading; the caller closes the channel.
+     */
+    FileChannel open(String hash) throws IOException;
+}
@@ -1,26 +1,25 @@
 package com.ems.backend.Services;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailOutboxService mailOutboxService;
 
-    public void sendHtmlEmail(String to, String subject, String htmlContent) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-
-        MimeMessageHelper helper = new MimeMessageHelper(message, true); // true = multipart
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(htmlContent, true); // true = enable HTML
+    /**
+     * Queues the mail in the outbox and returns its id; delivery happens on the mail workers.
+     */
+    public Long sendHtmlEmail(String to, String subject, String htmlContent) {
+        return mailOutboxService.enqueue(to, subject, htmlContent);
+    }
 
-        mailSender.send(message);
+    /**
+     * For mail that carries a secret such as an OTP: the stored body is blanked after delivery.
+     */
+    public Long sendSensitiveHtmlEmail(String to, String subject, String htmlContent) {
+        return mailOutboxService.enqueue(to, subject, htmlContent, true);
     }
 }
@@ -0,0 +1,10 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.Employee;
+
+/**
+ * Published by the employee write paths after a change has been saved,
+ * so in-memory indexes and caches can update themselves.
+ */
+public record EmployeeChangedEvent(Employee employee) {
+}
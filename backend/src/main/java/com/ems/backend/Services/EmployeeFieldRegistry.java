@@ -0,0 +1,123 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.Employee;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Typed setters for the scalar Employee fields that may be edited one by one,
+ * resolved once at startup instead of reflecting on every request.
+ */
+@Component
+public class EmployeeFieldRegistry {
+
+    // Managed through dedicated endpoints or internal bookkeeping, never through generic field updates.
+    private static final Set<String> EXCLUDED = Set.of("id", "password", "tokenVersion", "aadhaarPanRef", "profilePicRef");
+
+    private static final Map<Class<?>, Function<String, Object>> PARSERS = Map.of(
+            String.class, value -> value,
+            Integer.class, Integer::valueOf,
+            Long.class, Long::valueOf,
+            Boolean.class, Boolean::valueOf,
+            BigDecimal.class, BigDecimal::new,
+            Date.class, EmployeeFieldRegistry::parseDate
+    );
+
+    public record FieldAccessor(String name, Class<?> type, MethodHandle setter, Function<String, Object> parser) {
+
+        public Object convert(String value) {
+            return parser.apply(value);
+        }
+
+        public void set(Employee employee, Object value) {
+            try {
+                setter.invokeExact(employee, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+
+    private final Map<String, FieldAccessor> accessors;
+
+    public EmployeeFieldRegistry() {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Map<String, FieldAccessor> found = new HashMap<>();
+        for (Field field : Employee.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || EXCLUDED.contains(field.getName())) continue;
+            Class<?> type = box(field.getType());
+            Function<String, Object> parser = PARSERS.get(type);
+            if (parser == null) continue;
+
+            String setterName = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+            try {
+                Method setter = Employee.class.getMethod(setterName, field.getType());
+                MethodHandle handle = lookup.unreflect(setter)
+                        .asType(MethodType.methodType(void.class, Employee.class, Object.class));
+                found.put(field.getName(), new FieldAccessor(field.getName(), type, handle, parser));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("No usable setter for Employee." + field.getName(), e);
+            }
+        }
+        try {
+            // The manager is edited by id; the value is an id-only stub the repository turns into a reference.
+            MethodHandle handle = lookup.findVirtual(Employee.class, "setManager", MethodType.methodType(void.class, Employee.class))
+                    .asType(MethodType.methodType(void.class, Employee.class, Object.class));
+            found.put("manager", new FieldAccessor("manager", Employee.class, handle, EmployeeFieldRegistry::managerStub));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("No usable setter for Employee.manager", e);
+        }
+        this.accessors = Collections.unmodifiableMap(found);
+    }
+
+    /**
+     * Returns the accessor for the field, or null if it is unknown or not editable.
+     */
+    public FieldAccessor get(String fieldName) {
+        return accessors.get(fieldName);
+    }
+
+    public Set<String> fieldNames() {
+        return accessors.keySet();
+    }
+
+    private static Object managerStub(String value) {
+        if (value == null || value.isEmpty()) return null;
+        Employee manager = new Employee();
+        manager.setId(Long.valueOf(value));
+        return manager;
+    }
+
+    private static Object parseDate(String value) {
+        try {
+            return Date.from(LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format. Use yyyy-MM-dd");
+        }
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == boolean.class) return Boolean.class;
+        return type;
+    }
+}
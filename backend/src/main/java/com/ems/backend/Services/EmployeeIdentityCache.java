@@ -0,0 +1,178 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.DTO.EmployeeIdentity;
+import com.ems.backend.Repositories.EmployeeRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of {@link EmployeeIdentity} records keyed by id, official e-mail and e-mail id.
+ * Entries expire after a TTL, the cache is bounded in size, and every saved employee change
+ * evicts the affected keys through {@link EmployeeChangedEvent}.
+ * A load that was in flight when an eviction happened returns its result without caching it,
+ * so a reader that queried just before a write cannot put the old identity back.
+ */
+@Service
+public class EmployeeIdentityCache {
+
+    private record Entry(EmployeeIdentity identity, long expiresAt) {
+    }
+
+    private final EmployeeRepo employeeRepo;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByOfficialEmail = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByEmailId = new ConcurrentHashMap<>();
+    // Bumped by every eviction; a load only caches its result if no eviction happened since it started.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EmployeeIdentityCache(EmployeeRepo employeeRepo,
+                                 @Value("${ems.identity-cache.max-entries:50000}") int maxEntries,
+                                 @Value("${ems.identity-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.employeeRepo = employeeRepo;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public EmployeeIdentity findById(Long id) {
+        EmployeeIdentity cached = cached(id);
+        if (cached != null) return cached;
+        misses.increment();
+        long loadedAt = generation.get();
+        return employeeRepo.findIdentityById(id).map(identity -> put(identity, loadedAt)).orElse(null);
+    }
+
+    public EmployeeIdentity findByOfficialEmail(String officialEmail) {
+        if (officialEmail == null) return null;
+        EmployeeIdentity cached = cached(idByOfficialEmail.get(officialEmail));
+        if (cached != null && officialEmail.equals(cached.officialEmail())) return cached;
+        misses.increment();
+        long loadedAt = generation.get();
+        return first(employeeRepo.findIdentitiesByOfficialEmail(officialEmail), loadedAt);
+    }
+
+    public EmployeeIdentity findByEmailId(String emailId) {
+        if (emailId == null) return null;
+        EmployeeIdentity cached = cached(idByEmailId.get(emailId));
+        if (cached != null && emailId.equals(cached.emailId())) return cached;
+        misses.increment();
+        long loadedAt = generation.get();
+        return first(employeeRepo.findIdentitiesByEmailId(emailId), loadedAt);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        evict(event.employee().getId());
+        // The new addresses may have been looked up (and missed) under another id.
+        if (event.employee().getOfficialEmail() != null) idByOfficialEmail.remove(event.employee().getOfficialEmail());
+        if (event.employee().getEmailId() != null) idByEmailId.remove(event.employee().getEmailId());
+    }
+
+    public void evict(Long id) {
+        if (id == null) return;
+        // Bump before removing: a concurrent put either sees the new generation or lands first and is removed here.
+        generation.incrementAndGet();
+        remove(id);
+    }
+
+    private void remove(Long id) {
+        Entry removed = byId.remove(id);
+        if (removed != null) {
+            unlink(removed.identity());
+        }
+    }
+
+    private EmployeeIdentity cached(Long id) {
+        if (id == null) return null;
+        Entry entry = byId.get(id);
+        if (entry == null) return null;
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            remove(id);
+            return null;
+        }
+        hits.increment();
+        return entry.identity();
+    }
+
+    private EmployeeIdentity first(List<EmployeeIdentity> identities, long loadedAt) {
+        return identities.isEmpty() ? null : put(identities.get(0), loadedAt);
+    }
+
+    private EmployeeIdentity put(EmployeeIdentity identity, long loadedAt) {
+        if (byId.size() >= maxEntries) {
+            shrink();
+        }
+        Entry fresh = new Entry(identity, System.currentTimeMillis() + ttlMillis);
+        Entry[] replaced = new Entry[1];
+        // The generation is checked under the key's lock, which evict's remove also takes.
+        Entry stored = byId.compute(identity.id(), (id, current) -> {
+            if (generation.get() != loadedAt) return current;
+            replaced[0] = current;
+            return fresh;
+        });
+        if (stored != fresh) {
+            return identity;
+        }
+        if (replaced[0] != null) {
+            unlink(replaced[0].identity());
+        }
+        if (identity.officialEmail() != null) idByOfficialEmail.put(identity.officialEmail(), identity.id());
+        if (identity.emailId() != null) idByEmailId.put(identity.emailId(), identity.id());
+        return identity;
+    }
+
+    private void unlink(EmployeeIdentity identity) {
+        if (identity.officialEmail() != null) idByOfficialEmail.remove(identity.officialEmail(), identity.id());
+        if (identity.emailId() != null) idByEmailId.remove(identity.emailId(), identity.id());
+    }
+
+    // Drops expired entries first, then arbitrary ones until there is a tenth of headroom.
+    private void shrink() {
+        long now = System.currentTimeMillis();
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Map.Entry<Long, Entry>> it = byId.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.expiresAt() < now) {
+                it.remove();
+                unlink(entry.identity());
+                evictions.increment();
+            }
+        }
+        it = byId.entrySet().iterator();
+        while (byId.size() > target && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            it.remove();
+            unlink(entry.identity());
+            evictions.increment();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", byId.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : hitCount / (double) (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,352 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.DTO.EmployeeDTO;
+import com.ems.backend.Models.Employee;
+import com.ems.backend.Repositories.EmployeeRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming bulk import of employees from CSV (with a header row) or NDJSON.
+ * Rows are read incrementally and handled in chunks: one set-based duplicate check per chunk,
+ * passwords hashed in parallel on the BCrypt pool, and a single JDBC batch insert per chunk.
+ * Per-row errors and progress are written back as NDJSON while the upload is still being read.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+
+    private static final String INSERT_SQL =
+            "insert into employee (first_name, last_name, mobile_number, alternate_mobile_number, status, password, " +
+            "date_of_joining, salary, email_id, role, official_email, orientation_date, laptop_assigned, " +
+            "knowledge_transfer, id_returned, exit_interview, pay_roll, token_version, manager_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final EmployeeRepo employeeRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordHashingService passwordHashingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    public EmployeeImportService(EmployeeRepo employeeRepo,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 PasswordHashingService passwordHashingService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper) {
+        this.employeeRepo = employeeRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordHashingService = passwordHashingService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    private record PendingRow(long rowNumber, EmployeeDTO dto) {
+    }
+
+    private static final class Progress {
+        long rows;
+        long imported;
+        long failed;
+    }
+
+    public void importEmployees(InputStream input, boolean csv, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        Progress progress = new Progress();
+        List<PendingRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        String[] header = null;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            if (csv && header == null) {
+                header = parseCsvLine(line);
+                continue;
+            }
+            long rowNumber = ++progress.rows;
+            try {
+                EmployeeDTO dto = csv ? fromCsv(header, parseCsvLine(line)) : objectMapper.readValue(line, EmployeeDTO.class);
+                chunk.add(new PendingRow(rowNumber, dto));
+            } catch (IOException | IllegalArgumentException e) {
+                fail(writer, progress, rowNumber, "Unreadable row: " + e.getMessage());
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, progress, writer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress, writer);
+        }
+        writeLine(writer, event("done", progress));
+        writer.flush();
+    }
+
+    private void importChunk(List<PendingRow> chunk, Progress progress, Writer writer) throws IOException {
+        Set<String> emails = new HashSet<>();
+        Set<Long> managerIds = new HashSet<>();
+        for (PendingRow row : chunk) {
+            if (row.dto().getEmailId() != null) emails.add(row.dto().getEmailId());
+            if (row.dto().getOfficialEmail() != null) emails.add(row.dto().getOfficialEmail());
+            if (row.dto().getManager() != null) managerIds.add(row.dto().getManager());
+        }
+
+        // One query per kind for the whole chunk instead of a lookup per row.
+        Set<String> takenOfficial = lowerCase(emails.isEmpty() ? List.of() : employeeRepo.findExistingOfficialEmails(emails));
+        Set<String> takenEmailIds = lowerCase(emails.isEmpty() ? List.of() : employeeRepo.findExistingEmailIds(emails));
+        Set<Long> knownManagers = new HashSet<>(managerIds.isEmpty() ? List.of() : employeeRepo.findExistingIds(managerIds));
+
+        // Emails claimed by earlier rows of this chunk, lower-cased. Earlier chunks are already
+        // committed, so the queries above catch repeats of their addresses.
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingRow> valid = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            String error = validate(row.dto(), takenOfficial, takenEmailIds, knownManagers, seenEmails);
+            if (error != null) {
+                fail(writer, progress, row.rowNumber(), error);
+                continue;
+            }
+            seenEmails.add(row.dto().getEmailId().toLowerCase(Locale.ROOT));
+            if (row.dto().getOfficialEmail() != null) {
+                seenEmails.add(row.dto().getOfficialEmail().toLowerCase(Locale.ROOT));
+            }
+            valid.add(row);
+        }
+
+        List<String> hashes = null;
+        if (!valid.isEmpty()) {
+            try {
+                hashes = passwordHashingService.encodeAll(valid.stream().map(row -> row.dto().getPassword()).toList());
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                for (PendingRow row : valid) {
+                    fail(writer, progress, row.rowNumber(), "Password hashing failed: " + cause.getMessage());
+                }
+            }
+        }
+
+        if (hashes != null) {
+            List<String> encoded = hashes;
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                bind(ps, valid.get(i).dto(), encoded.get(i));
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return valid.size();
+                            }
+                        }));
+                progress.imported += valid.size();
+                publishImported(valid);
+            } catch (RuntimeException e) {
+                for (PendingRow row : valid) {
+                    fail(writer, progress, row.rowNumber(), "Insert failed: " + e.getMessage());
+                }
+            }
+        }
+
+        writeLine(writer, event("progress", progress));
+        writer.flush();
+    }
+
+    private String validate(EmployeeDTO dto, Set<String> takenOfficial, Set<String> takenEmailIds,
+                            Set<Long> knownManagers, Set<String> seenEmails) {
+        String emailId = dto.getEmailId();
+        if (emailId == null || emailId.isEmpty()) return "Email cannot be empty";
+        if (!EMAIL.matcher(emailId).matches()) return "Invalid email format";
+        if (dto.getPassword() == null || dto.getPassword().length() < 6) return "Password must be at least 6 characters long";
+
+        String email = emailId.toLowerCase(Locale.ROOT);
+        String official = dto.getOfficialEmail() == null ? null : dto.getOfficialEmail().toLowerCase(Locale.ROOT);
+        if (takenOfficial.contains(email) || takenEmailIds.contains(email)
+                || (official != null && (takenOfficial.contains(official) || takenEmailIds.contains(official)))) {
+            return "Employee with same email id already exist.";
+        }
+        if (seenEmails.contains(email) || (official != null && seenEmails.contains(official))) {
+            return "Duplicate email id earlier in this file.";
+        }
+        if (dto.getManager() != null && !knownManagers.contains(dto.getManager())) {
+            return "Manager not found with ID: " + dto.getManager();
+        }
+        return null;
+    }
+
+    private void bind(PreparedStatement ps, EmployeeDTO dto, String passwordHash) throws SQLException {
+        ps.setString(1, dto.getFirstName());
+        ps.setString(2, dto.getLastName());
+        ps.setString(3, dto.getMobileNumber());
+        ps.setString(4, dto.getAlternateMobileNumber());
+        ps.setString(5, dto.getStatus());
+        ps.setString(6, passwordHash);
+        setDate(ps, 7, dto.getDateOfJoining());
+        setDecimal(ps, 8, dto.getSalary());
+        ps.setString(9, dto.getEmailId());
+        ps.setString(10, dto.getRole());
+        ps.setString(11, dto.getOfficialEmail());
+        setDate(ps, 12, dto.getOrientationDate());
+        ps.setBoolean(13, dto.isLaptopAssigned());
+        ps.setBoolean(14, dto.isKnowledgeTransfer());
+        ps.setBoolean(15, dto.isIdReturned());
+        ps.setBoolean(16, dto.isExitInterview());
+        ps.setBoolean(17, false);
+        ps.setInt(18, 0);
+        if (dto.getManager() == null) ps.setNull(19, Types.BIGINT);
+        else ps.setLong(19, dto.getManager());
+    }
+
+    // Events are built from the rows just inserted plus their new ids; loading the entities back
+    // would also pull each one's manager and salary structure.
+    private void publishImported(List<PendingRow> rows) {
+        List<String> emailIds = rows.stream().map(row -> row.dto().getEmailId()).toList();
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] link : employeeRepo.findIdsByEmailIdIn(emailIds)) {
+            ids.put(((String) link[0]).toLowerCase(Locale.ROOT), (Long) link[1]);
+        }
+        for (PendingRow row : rows) {
+            Long id = ids.get(row.dto().getEmailId().toLowerCase(Locale.ROOT));
+            if (id != null) eventPublisher.publishEvent(new EmployeeChangedEvent(toEmployee(id, row.dto())));
+        }
+    }
+
+    private static Employee toEmployee(Long id, EmployeeDTO dto) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setFirstName(dto.getFirstName());
+        employee.setLastName(dto.getLastName());
+        employee.setMobileNumber(dto.getMobileNumber());
+        employee.setAlternateMobileNumber(dto.getAlternateMobileNumber());
+        employee.setStatus(dto.getStatus());
+        employee.setDateOfJoining(dto.getDateOfJoining());
+        employee.setSalary(dto.getSalary());
+        employee.setEmailId(dto.getEmailId());
+        employee.setRole(dto.getRole());
+        employee.setOfficialEmail(dto.getOfficialEmail());
+        employee.setOrientationDate(dto.getOrientationDate());
+        if (dto.getManager() != null) {
+            Employee manager = new Employee();
+            manager.setId(dto.getManager());
+            employee.setManager(manager);
+        }
+        return employee;
+    }
+
+    private EmployeeDTO fromCsv(String[] header, String[] values) {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.length; i++) {
+            if (!values[i].isEmpty()) row.put(header[i].trim(), values[i]);
+        }
+        return objectMapper.convertValue(row, EmployeeDTO.class);
+    }
+
+    /**
+     * Splits one CSV record, honouring double-quoted fields and "" escapes.
+     */
+    static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private void fail(Writer writer, Progress progress, long rowNumber, String message) throws IOException {
+        progress.failed++;
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", "error");
+        line.put("row", rowNumber);
+        line.put("message", message);
+        writeLine(writer, line);
+    }
+
+    private Map<String, Object> event(String type, Progress progress) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", type);
+        line.put("rows", progress.rows);
+        line.put("imported", progress.imported);
+        line.put("failed", progress.failed);
+        return line;
+    }
+
+    private void writeLine(Writer writer, Map<String, Object> line) throws IOException {
+        writer.write(objectMapper.writeValueAsString(line));
+        writer.write('\n');
+    }
+
+    private static Set<String> lowerCase(List<String> values) {
+        Set<String> result = new HashSet<>();
+        for (String value : values) {
+            if (value != null) result.add(value.toLowerCase(Locale.ROOT));
+        }
+        return result;
+    }
+
+    private static void setDate(PreparedStatement ps, int index, Date value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.DATE);
+        else ps.setDate(index, new java.sql.Date(value.getTime()));
+    }
+
+    private static void setDecimal(PreparedStatement ps, int index, BigDecimal value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.DECIMAL);
+        else ps.setBigDecimal(index, value);
+    }
+}
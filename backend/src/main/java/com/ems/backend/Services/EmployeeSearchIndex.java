@@ -0,0 +1,292 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.DTO.EmployeeSummary;
+import com.ems.backend.Repositories.EmployeeRepo;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type-ahead index over employee names, e-mail addresses and mobile numbers.
+ * Tokens live in a sorted map so a prefix is a contiguous range; each posting is one int
+ * packing the document ordinal with the weight of the field the token came from, in a list that
+ * grows geometrically. Queries score into per-thread int arrays indexed by ordinal.
+ * Kept current from {@link EmployeeChangedEvent}s, so searches never reach MySQL.
+ */
+@Service
+public class EmployeeSearchIndex {
+
+    public static final int MAX_RESULTS = 50;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int EMAIL_WEIGHT = 2;
+    private static final int MOBILE_WEIGHT = 1;
+    private static final int WEIGHT_BITS = 2;
+    private static final int WEIGHT_MASK = (1 << WEIGHT_BITS) - 1;
+    private static final int LOAD_BATCH = 1000;
+
+    private final EmployeeRepo employeeRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<EmployeeSummary> documents = new ArrayList<>();
+
+    // Reused across searches on the same thread; searches run concurrently under the read lock.
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Postings {
+        int[] items = new int[4];
+        int size;
+    }
+
+    // Per-ordinal scoring state. Every entry is back to zero between searches.
+    private static final class Scratch {
+        int[] total = new int[0];
+        int[] best = new int[0];
+        int[] matchedTerms = new int[0];
+        int[] firstTouched = new int[0];
+        int[] touched = new int[0];
+
+        void ensure(int documents) {
+            if (total.length >= documents) return;
+            int capacity = Math.max(documents, total.length * 2);
+            total = new int[capacity];
+            best = new int[capacity];
+            matchedTerms = new int[capacity];
+            firstTouched = new int[capacity];
+            touched = new int[capacity];
+        }
+    }
+
+    public EmployeeSearchIndex(EmployeeRepo employeeRepo) {
+        this.employeeRepo = employeeRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        String afterKey = null;
+        Long afterId = null;
+        while (true) {
+            List<EmployeeSummary> batch = employeeRepo.findSummaries(null, null, "id", false, afterKey, afterId, LOAD_BATCH);
+            batch.forEach(this::index);
+            if (batch.size() < LOAD_BATCH) break;
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.employee().getId() != null) {
+            index(EmployeeSummary.of(event.employee()));
+        }
+    }
+
+    public void index(EmployeeSummary summary) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(summary.getId());
+            if (ordinal == null) {
+                ordinal = documents.size();
+                documents.add(summary);
+                ordinals.put(summary.getId(), ordinal);
+            } else {
+                int existing = ordinal;
+                tokens(documents.get(existing)).forEach((token, weight) -> removePosting(token, existing));
+                documents.set(existing, summary);
+            }
+            int target = ordinal;
+            tokens(summary).forEach((token, weight) -> addPosting(token, (target << WEIGHT_BITS) | weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top-k employees matching every whitespace-separated term of the query as a token prefix.
+     * Exact token matches and name matches rank higher.
+     */
+    public List<EmployeeSummary> search(String query, int limit) {
+        String[] terms = normalize(query).split("\\s+");
+        int k = Math.min(Math.max(limit, 1), MAX_RESULTS);
+
+        lock.readLock().lock();
+        try {
+            Scratch sc = scratch.get();
+            sc.ensure(documents.size());
+            int[] total = sc.total;
+            int[] best = sc.best;
+            int[] matchedTerms = sc.matchedTerms;
+            int firstCount = 0;
+            int[] candidates = null;
+            int candidateCount = 0;
+            int term = 0;
+            try {
+                for (String word : terms) {
+                    if (word.isEmpty()) continue;
+                    // Only documents that matched every earlier term (matchedTerms == term) can still qualify.
+                    int[] touched = term == 0 ? sc.firstTouched : sc.touched;
+                    int count = 0;
+                    String upper = word + Character.MAX_VALUE;
+                    for (Map.Entry<String, Postings> entry : postings.subMap(word, true, upper, false).entrySet()) {
+                        boolean exact = entry.getKey().length() == word.length();
+                        Postings list = entry.getValue();
+                        for (int i = 0; i < list.size; i++) {
+                            int posting = list.items[i];
+                            int ordinal = posting >>> WEIGHT_BITS;
+                            if (matchedTerms[ordinal] != term) continue;
+                            int score = (posting & WEIGHT_MASK) * (exact ? 2 : 1);
+                            if (best[ordinal] == 0) touched[count++] = ordinal;
+                            if (score > best[ordinal]) best[ordinal] = score;
+                        }
+                    }
+                    for (int i = 0; i < count; i++) {
+                        int ordinal = touched[i];
+                        total[ordinal] += best[ordinal];
+                        best[ordinal] = 0;
+                        matchedTerms[ordinal] = term + 1;
+                    }
+                    if (term == 0) firstCount = count;
+                    term++;
+                    candidates = touched;
+                    candidateCount = count;
+                    if (count == 0) break;
+                }
+                if (candidates == null || candidateCount == 0) return List.of();
+
+                // Min-heap of the best k, each packed as score in the high half and the inverted ordinal
+                // in the low half, so larger keys rank higher and ties go to the earlier document.
+                long[] heap = new long[k];
+                int n = 0;
+                for (int i = 0; i < candidateCount; i++) {
+                    int ordinal = candidates[i];
+                    long key = ((long) total[ordinal] << 32) | (Integer.MAX_VALUE - ordinal);
+                    if (n < k) {
+                        heap[n] = key;
+                        siftUp(heap, n++);
+                    } else if (key > heap[0]) {
+                        heap[0] = key;
+                        siftDown(heap, n);
+                    }
+                }
+                Arrays.sort(heap, 0, n);
+                List<EmployeeSummary> result = new ArrayList<>(n);
+                for (int i = n - 1; i >= 0; i--) {
+                    result.add(documents.get(Integer.MAX_VALUE - (int) heap[i]));
+                }
+                return result;
+            } finally {
+                // Every document touched by a later term was touched by the first one.
+                for (int i = 0; i < firstCount; i++) {
+                    int ordinal = sc.firstTouched[i];
+                    total[ordinal] = 0;
+                    matchedTerms[ordinal] = 0;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) return;
+            long swap = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = swap;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int n) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) return;
+            if (child + 1 < n && heap[child + 1] < heap[child]) child++;
+            if (heap[i] <= heap[child]) return;
+            long swap = heap[child];
+            heap[child] = heap[i];
+            heap[i] = swap;
+            i = child;
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addPosting(String token, int posting) {
+        Postings list = postings.computeIfAbsent(token, k -> new Postings());
+        if (list.size == list.items.length) {
+            list.items = Arrays.copyOf(list.items, list.size * 2);
+        }
+        list.items[list.size++] = posting;
+    }
+
+    private void removePosting(String token, int ordinal) {
+        Postings list = postings.get(token);
+        if (list == null) return;
+        int kept = 0;
+        for (int i = 0; i < list.size; i++) {
+            int posting = list.items[i];
+            if ((posting >>> WEIGHT_BITS) != ordinal) list.items[kept++] = posting;
+        }
+        list.size = kept;
+        if (kept == 0) postings.remove(token);
+    }
+
+    // Token -> highest field weight it was found in for this document.
+    private static Map<String, Integer> tokens(EmployeeSummary summary) {
+        Map<String, Integer> tokens = new HashMap<>();
+        addWords(tokens, summary.getFirstName(), NAME_WEIGHT);
+        addWords(tokens, summary.getLastName(), NAME_WEIGHT);
+        addEmail(tokens, summary.getEmailId());
+        addEmail(tokens, summary.getOfficialEmail());
+        if (summary.getMobileNumber() != null) {
+            String digits = summary.getMobileNumber().replaceAll("\\D", "");
+            if (!digits.isEmpty()) tokens.merge(digits, MOBILE_WEIGHT, Math::max);
+            // Also index the national number so searches without the country code match.
+            if (digits.length() > 10) tokens.merge(digits.substring(digits.length() - 10), MOBILE_WEIGHT, Math::max);
+        }
+        return tokens;
+    }
+
+    private static void addWords(Map<String, Integer> tokens, String value, int weight) {
+        if (value == null) return;
+        for (String word : normalize(value).split("\\s+")) {
+            if (!word.isEmpty()) tokens.merge(word, weight, Math::max);
+        }
+    }
+
+    private static void addEmail(Map<String, Integer> tokens, String email) {
+        if (email == null || email.isEmpty()) return;
+        String normalized = normalize(email);
+        tokens.merge(normalized, EMAIL_WEIGHT, Math::max);
+        int at = normalized.indexOf('@');
+        String local = at < 0 ? normalized : normalized.substring(0, at);
+        for (String part : local.split("[._+\\-]")) {
+            if (!part.isEmpty()) tokens.merge(part, EMAIL_WEIGHT, Math::max);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,28 +1,39 @@
 package com.ems.backend.Services;
 
+import com.ems.backend.DTO.EmployeeIdentity;
+import com.ems.backend.DTO.EmployeeSummary;
+import com.ems.backend.DTO.KeysetPage;
 import com.ems.backend.Models.Employee;
 import com.ems.backend.Repositories.EmployeeRepo;
+import com.ems.backend.Repositories.EmployeeRepoImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.math.BigDecimal;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 
 @Service
 public class EmployeeServices {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private EmployeeRepo employeeRepo;
 
@@ -30,7 +41,34 @@ public class EmployeeServices {
     EmailService emailService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private EmployeeFieldRegistry fieldRegistry;
+
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EmployeeIdentityCache identityCache;
+
+    @Autowired
+    private OtpService otpService;
 
     public String addEmployee(Employee user) {
         try {
@@ -47,23 +85,39 @@ public class EmployeeServices {
                 return "Password must be at least 6 characters long";
             }
 
-            Employee emp = employeeRepo.findByOfficialEmail(user.getEmailId());
+            EmployeeIdentity emp = identityCache.findByOfficialEmail(user.getEmailId());
             if(emp != null) return "Employee with same email id already exist.";
 
             // Encrypt the password
-            String encryptedPassword = passwordEncoder.encode(user.getPassword());
+            String encryptedPassword = passwordHashingService.encode(user.getPassword());
             user.setPassword(encryptedPassword);
 
             // Save employee
             employeeRepo.save(user);
+            publishChange(user);
             return "Employee added successfully";
 
+        } catch (RejectedExecutionException e) {
+            return "Server is busy, please retry shortly";
         } catch (Exception e) {
             e.printStackTrace();
             return "Error while adding employee: " + e.getMessage();
         }
     }
 
+    private void publishChange(Employee user) {
+        eventPublisher.publishEvent(new EmployeeChangedEvent(user));
+    }
+
+    // Invalidates every JWT issued to the employee before this change; call before saving.
+    private void revokeTokens(Employee user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+    }
+
+    private ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body("Server is busy, please retry shortly");
+    }
+
     private boolean isValidEmail(String email) {
         String emailRegex = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
         return Pattern.matches(emailRegex, email);
@@ -72,10 +126,12 @@ public class EmployeeServices {
     public ResponseEntity<?> login(String email, String password)
     {
         try{
-            Employee user = employeeRepo.findByOfficialEmail(email);
-            if(user  == null) return ResponseEntity.notFound().build();
-            else if(passwordEncoder.matches(password,user.getPassword())) return ResponseEntity.ok(user);
+            EmployeeIdentity identity = identityCache.findByOfficialEmail(email);
+            if(identity  == null) return ResponseEntity.notFound().build();
+            else if(passwordHashingService.matches(password,identity.passwordHash())) return ResponseEntity.ok(employeeRepo.findById(identity.id()).orElse(null));
             else return ResponseEntity.status(201).body("Invalid Password");
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Internal Server Error");
         }
@@ -83,9 +139,13 @@ public class EmployeeServices {
 
     public ResponseEntity<?> forgotPassword(String email) {
         try{
-            Employee user = employeeRepo.findByOfficialEmail(email);
-            if(user  == null) return ResponseEntity.notFound().build();
-            int otp = (int) (Math.random() * 10000);
+            if(identityCache.findByOfficialEmail(email)  == null) return ResponseEntity.notFound().build();
+            String otp = otpService.issue(email);
+            if(otp == null) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header("Retry-After", Long.toString(otpService.retryAfterSeconds(email)))
+                        .body("Too many OTP requests, please try again later");
+            }
             String htmlContent = "<!DOCTYPE html>\n" +
                     "<html>\n" +
                     "<head>\n" +
@@ -157,26 +217,48 @@ public class EmployeeServices {
                     "  </div>\n" +
                     "</body>\n" +
                     "</html>\n";
-                    htmlContent = htmlContent.replace("otp_value", Integer.toString(otp));
-            emailService.sendHtmlEmail(email, "Password Recovery", htmlContent);
+                    htmlContent = htmlContent.replace("otp_value", otp);
+            emailService.sendSensitiveHtmlEmail(email, "Password Recovery", htmlContent);
 
-            return ResponseEntity.ok().body(otp);
+            return ResponseEntity.accepted().body("OTP has been sent to your email");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Internal Server Error");
         }
     }
 
-    public ResponseEntity<?> resetPassword(String email, String password) {
+    public ResponseEntity<?> verifyOtp(String email, String otp) {
+        OtpService.Verification verification = otpService.verify(email, otp);
+        switch (verification.result()) {
+            case VERIFIED:
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("resetToken", verification.resetToken());
+                return ResponseEntity.ok().body(body);
+            case INVALID:
+                return ResponseEntity.badRequest().body("Invalid OTP. " + verification.attemptsRemaining() + " attempt(s) left.");
+            default:
+                return ResponseEntity.status(HttpStatus.GONE).body("OTP has expired, please request a new one");
+        }
+    }
+
+    public ResponseEntity<?> resetPassword(String email, String password, String resetToken) {
         try{
+            if(password == null || password.length() < 6) return ResponseEntity.badRequest().body("Password must be at least 6 characters long");
+            if(!otpService.consumeResetToken(email, resetToken)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Reset session is invalid or has expired");
+            }
             Employee user = employeeRepo.findByOfficialEmail(email);
-            System.out.println(password);
             if(user  == null) return ResponseEntity.notFound().build();
             else
             {
-                user.setPassword(passwordEncoder.encode(password));
+                user.setPassword(passwordHashingService.encode(password));
+                revokeTokens(user);
                 employeeRepo.save(user);
+                publishChange(user);
+                tokenVersionService.evict(user.getId());
                 return ResponseEntity.status(201).body("Password has been changed successfully");
             }
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Internal Server Error");
         }
@@ -193,12 +275,74 @@ public class EmployeeServices {
         }
     }
 
+    /**
+     * Keyset-paginated listing that reads only the summary columns, so no document or picture is loaded.
+     */
+    public ResponseEntity<?> listEmployees(String status, String role, String sort, String direction, String cursor, Integer size) {
+        try {
+            String sortField = sort == null || sort.isEmpty() ? "id" : sort;
+            if (!EmployeeRepoImpl.SORTABLE_FIELDS.contains(sortField)) {
+                return ResponseEntity.badRequest().body("Unsupported sort field: " + sortField);
+            }
+            boolean descending = "desc".equalsIgnoreCase(direction);
+            int limit = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+            String afterKey = null;
+            Long afterId = null;
+            if (cursor != null && !cursor.isEmpty()) {
+                String decoded = KeysetCursor.decode(cursor);
+                // "id:key", or just "id" when the last row's sort value was null.
+                int separator = decoded.indexOf(':');
+                afterId = Long.parseLong(separator < 0 ? decoded : decoded.substring(0, separator));
+                afterKey = separator < 0 ? null : decoded.substring(separator + 1);
+            }
+
+            List<EmployeeSummary> rows = employeeRepo.findSummaries(status, role, sortField, descending, afterKey, afterId, limit + 1);
+            String nextCursor = null;
+            if (rows.size() > limit) {
+                rows = rows.subList(0, limit);
+                EmployeeSummary last = rows.get(limit - 1);
+                String value = sortValue(last, sortField);
+                String key = value == null ? String.valueOf(last.getId()) : last.getId() + ":" + value;
+                nextCursor = KeysetCursor.encode(key);
+            }
+            return ResponseEntity.ok().body(new KeysetPage<>(rows, nextCursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    public ResponseEntity<?> searchEmployees(String query, Integer limit) {
+        try {
+            if (query == null || query.isBlank()) {
+                return ResponseEntity.badRequest().body("Query cannot be empty");
+            }
+            return ResponseEntity.ok().body(searchIndex.search(query, limit == null ? 10 : limit));
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    private String sortValue(EmployeeSummary row, String sortField) {
+        return switch (sortField) {
+            case "firstName" -> row.getFirstName();
+            case "lastName" -> row.getLastName();
+            case "emailId" -> row.getEmailId();
+            default -> null;
+        };
+    }
+
     public ResponseEntity<?> deleteEmployee(Long id) {
         try{
             Employee user = employeeRepo.findById(id).orElse(null);
             assert user != null;
             user.setStatus("Exiting");
             employeeRepo.save(user);
+            publishChange(user);
             return ResponseEntity.ok().body("Employee data deleted successfully");
         }
         catch (Exception e)
@@ -218,7 +362,19 @@ public class EmployeeServices {
                 return "Invalid email format";
             }
 
+            Employee existing = user.getId() == null ? null : employeeRepo.findById(user.getId()).orElse(null);
+            if (existing != null) {
+                user.setTokenVersion(existing.getTokenVersion());
+                if (!Objects.equals(existing.getRole(), user.getRole())) {
+                    revokeTokens(user);
+                }
+            }
+
             employeeRepo.save(user);
+            publishChange(user);
+            if (existing != null) {
+                tokenVersionService.evict(user.getId());
+            }
             return "Employee updated successfully";
 
         } catch (Exception e) {
@@ -227,59 +383,85 @@ public class EmployeeServices {
         }
     }
 
-    private Object convertToProperType(Class<?> type, String value) {
-        if (type == String.class) {
-            return value;
-        } else if (type == int.class || type == Integer.class) {
-            return Integer.parseInt(value);
-        } else if (type == long.class || type == Long.class) {
-            return Long.parseLong(value);
-        } else if (type == boolean.class || type == Boolean.class) {
-            return Boolean.parseBoolean(value);
-        } else if (type == BigDecimal.class) {
-            return new BigDecimal(value);
-        } else if (type == Date.class) {
-            try {
-                return new SimpleDateFormat("yyyy-MM-dd").parse(value); // match format of dateOfJoining
-            } catch (ParseException e) {
-                throw new RuntimeException("Invalid date format. Use yyyy-MM-dd");
+    public ResponseEntity<?> updateField(String emailId, String fieldName, String value) {
+        try {
+            Employee user = employeeRepo.findByEmailId(emailId);
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Employee not found");
             }
+            return applyFieldUpdates(user, Collections.singletonMap(fieldName, value));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body("Internal Server Error");
         }
-        throw new RuntimeException("Unsupported field type: " + type.getName());
     }
 
-
-    public ResponseEntity<?> updateField(String emailId, String fieldName, String value) {
+    /**
+     * Applies several field changes in one request with a single UPDATE of only those columns.
+     */
+    public ResponseEntity<?> patchEmployee(Long id, Map<String, String> fields) {
         try {
-            Employee user = employeeRepo.findByEmailId(emailId);
+            Employee user = employeeRepo.findById(id).orElse(null);
             if (user == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Employee not found");
             }
-            System.out.println(fieldName+" "+user);
-            Field field = Employee.class.getDeclaredField(fieldName);
-            field.setAccessible(true);
+            return applyFieldUpdates(user, fields);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
 
+    private ResponseEntity<?> applyFieldUpdates(Employee user, Map<String, String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return ResponseEntity.badRequest().body("No fields to update");
+        }
 
-            if ("officialEmail".equalsIgnoreCase(fieldName)) {
-                Employee data = employeeRepo.findByOfficialEmail(value);
-                if (data != null) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : fields.entrySet()) {
+            String fieldName = entry.getKey();
+            EmployeeFieldRegistry.FieldAccessor accessor = fieldRegistry.get(fieldName);
+            if (accessor == null) {
+                return ResponseEntity.badRequest().body("Invalid field name: " + fieldName);
+            }
+            if (entry.getValue() == null && accessor.type() != String.class && accessor.type() != Employee.class) {
+                return ResponseEntity.badRequest().body("A value is required for field: " + fieldName);
+            }
+            Object convertedValue;
+            try {
+                convertedValue = accessor.convert(entry.getValue());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid value for " + fieldName + ": " + e.getMessage());
+            }
+
+            if ("officialEmail".equals(fieldName) && convertedValue != null) {
+                EmployeeIdentity data = identityCache.findByOfficialEmail((String) convertedValue);
+                if (data != null && !data.id().equals(user.getId())) {
                     return ResponseEntity.badRequest().body("This Official email is already set to another employee.");
                 }
             }
+            if ("manager".equals(fieldName) && convertedValue != null) {
+                Long managerId = ((Employee) convertedValue).getId();
+                if (!employeeRepo.existsById(managerId)) {
+                    return ResponseEntity.badRequest().body("Manager not found with ID: " + managerId);
+                }
+                if (orgChartIndex.wouldCreateCycle(user.getId(), managerId)) {
+                    return ResponseEntity.badRequest().body("An employee cannot report to themselves or to someone in their own reporting line.");
+                }
+            }
+            values.put(fieldName, convertedValue);
+        }
 
-            Object convertedValue = convertToProperType(field.getType(), value);
-            field.set(user, convertedValue);
+        boolean roleChanged = values.containsKey("role") && !Objects.equals(values.get("role"), user.getRole());
+        employeeRepo.updateFields(user.getId(), values, roleChanged);
 
-            employeeRepo.save(user);
-            return ResponseEntity.ok(user);
-        } catch (NoSuchFieldException e) {
-            return ResponseEntity.badRequest().body("Invalid field name: " + fieldName);
-        } catch (IllegalAccessException e) {
-            return ResponseEntity.internalServerError().body("Unable to access field: " + fieldName);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().body("Internal Server Error");
+        values.forEach((fieldName, value) -> fieldRegistry.get(fieldName).set(user, value));
+        if (roleChanged) {
+            revokeTokens(user);
+            tokenVersionService.evict(user.getId());
         }
+        publishChange(user);
+        return ResponseEntity.ok(user);
     }
 
 
@@ -291,6 +473,7 @@ public class EmployeeServices {
             {
                 user.setStatus(status);
                 employeeRepo.save(user);
+                publishChange(user);
                 return ResponseEntity.status(201).body("Status has been updated successfully");
             }
         } catch (Exception e) {
@@ -302,10 +485,14 @@ public class EmployeeServices {
         try{
             Employee user = employeeRepo.findByEmailId(emailId);
             if(user  == null) return ResponseEntity.notFound().build();
+            else if(file == null || file.isEmpty()) return ResponseEntity.badRequest().body("File cannot be empty");
             else
             {
-                user.setAadhaarPan(file.getBytes());
+                try (InputStream in = file.getInputStream()) {
+                    user.setAadhaarPanRef(blobStore.store(in));
+                }
                 employeeRepo.save(user);
+                publishChange(user);
                 return ResponseEntity.ok().body(user);
             }
         } catch (Exception e) {
@@ -322,22 +509,37 @@ public class EmployeeServices {
         }
     }
 
-    public ResponseEntity<?> getProfilePic(Long id) {
+    public ResponseEntity<?> getProfilePic(Long id, String ifNoneMatch, String range) {
         try{
-            Employee data = employeeRepo.findById(id).orElse(null);
-            assert data != null;
-            return ResponseEntity.ok().body(data.getProfilePic());
+            return BlobResponses.serve(blobStore, employeeRepo.findProfilePicRefById(id), ifNoneMatch, range);
         } catch (RuntimeException e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server erorr");
         }
     }
 
-    public ResponseEntity<?> getAadharPan(Long id) {
+    public ResponseEntity<?> getProfilePicThumbnail(Long id, int requestedSize, String ifNoneMatch) {
         try{
-            Employee data = employeeRepo.findById(id).orElse(null);
-            assert data != null;
-            return ResponseEntity.ok().body(data.getAadhaarPan());
+            String hash = employeeRepo.findProfilePicRefById(id);
+            if(hash == null) return ResponseEntity.notFound().build();
+            int size = ThumbnailService.snap(requestedSize);
+            String etag = "\"" + hash + "-" + size + "\"";
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            if(ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            byte[] thumbnail = thumbnailService.get(hash, size);
+            if(thumbnail == null) return ResponseEntity.notFound().build();
+            return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).contentType(MediaType.IMAGE_JPEG).body(thumbnail);
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server erorr");
+        }
+    }
+
+    public ResponseEntity<?> getAadharPan(Long id, String ifNoneMatch, String range) {
+        try{
+            return BlobResponses.serve(blobStore, employeeRepo.findAadhaarPanRefById(id), ifNoneMatch, range);
         } catch (RuntimeException e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server erorr");
@@ -347,15 +549,20 @@ public class EmployeeServices {
     public ResponseEntity<?> setProfilePic(Long id, MultipartFile file) {
         try{
             Employee data = employeeRepo.findById(id).orElse(null);
-            assert data != null;
-            data.setProfilePic(file.getBytes());
+            if(data == null) return ResponseEntity.notFound().build();
+            if(file == null || file.isEmpty()) return ResponseEntity.badRequest().body("File cannot be empty");
+            try (InputStream in = file.getInputStream()) {
+                data.setProfilePicRef(blobStore.store(in));
+            }
             employeeRepo.save(data);
-            return ResponseEntity.ok().body(data.getProfilePic());
+            publishChange(data);
+            thumbnailService.renderAsync(data.getProfilePicRef());
+            return ResponseEntity.ok().body(data.getProfilePicRef());
         } catch (RuntimeException e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server Error");
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new UncheckedIOException(e);
         }
     }
 
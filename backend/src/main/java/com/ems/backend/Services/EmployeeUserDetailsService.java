@@ -1,35 +1,39 @@
 package com.ems.backend.Services;
 
-import com.ems.backend.Models.Employee;
-import com.ems.backend.Repositories.EmployeeRepo;
+import com.ems.backend.DTO.EmployeeIdentity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class EmployeeUserDetailsService implements UserDetailsService {
 
-    private final EmployeeRepo employeeRepo;
+    private final EmployeeIdentityCache identityCache;
 
-    public EmployeeUserDetailsService(EmployeeRepo employeeRepo) {
-        this.employeeRepo = employeeRepo;
+    public EmployeeUserDetailsService(EmployeeIdentityCache identityCache) {
+        this.identityCache = identityCache;
     }
 
+    /**
+     * Resolves the login e-mail through the identity cache, so only the credential
+     * columns are read and repeated lookups do not reach the database.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // The 'username' here is the email that the user types into the login form.
-        System.out.println("Searching for user with email: " + username);
-
-        // We use your repository to find the employee by their email.
-        Employee employee = employeeRepo.findByOfficialEmail(username);
+        EmployeeIdentity identity = identityCache.findByOfficialEmail(username);
 
-        if (employee == null) {
-            System.out.println("User not found!");
+        if (identity == null) {
             throw new UsernameNotFoundException("No user found with email: " + username);
         }
 
-        System.out.println("User found: " + employee.getOfficialEmail());
-        return employee;
+        return User.withUsername(identity.officialEmail())
+                .password(identity.passwordHash())
+                .authorities(identity.role() == null ? List.of() : List.of(new SimpleGrantedAuthority(identity.role())))
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,177 @@
+package com.ems.backend.Services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams large tables to the client as CSV or NDJSON without materializing them.
+ * Rows come from a forward-only, streaming result set of scalar projections and are written
+ * as they arrive, with the persistence context cleared periodically, so heap use stays flat.
+ */
+@Service
+public class ExportService {
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one at a time instead of buffering the result.
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int CLEAR_EVERY = 1000;
+    private static final int FLUSH_EVERY = 500;
+
+    public record Export(String name, String[] columns, String jpql) {
+    }
+
+    public static final Export EMPLOYEES = new Export("employees",
+            new String[]{"id", "firstName", "lastName", "emailId", "officialEmail", "mobileNumber", "role", "status", "dateOfJoining", "managerId", "payRoll"},
+            "select e.id, e.firstName, e.lastName, e.emailId, e.officialEmail, e.mobileNumber, e.role, e.status, " +
+            "e.dateOfJoining, m.id, e.payRoll from Employee e left join e.manager m order by e.id");
+
+    public static final Export LEAVES = new Export("leaves",
+            new String[]{"id", "employeeId", "firstName", "lastName", "leaveType", "status", "startDate", "endDate", "submittedDate", "reason"},
+            "select l.id, emp.id, emp.firstName, emp.lastName, l.leaveType, l.status, l.startDate, l.endDate, " +
+            "l.submittedDate, l.reason from Leave l join l.employee emp order by l.id");
+
+    public static final Export PAYSLIPS = new Export("payslips",
+            new String[]{"id", "employeeId", "employeeName", "role", "month", "year", "basicPaise", "hraPaise",
+                    "specialAllowancePaise", "grossEarningsPaise", "professionalTaxPaise", "providentFundPaise",
+                    "netSalaryPaise", "generatedOn"},
+            "select p.id, p.user.id, p.employeeName, p.role, p.month, p.year, p.basic, p.hra, p.specialAllowance, " +
+            "p.grossEarnings, p.professionalTax, p.providentFund, p.netSalary, p.generatedOn " +
+            "from Payslip p order by p.id");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public ResponseEntity<?> export(Export export, String format, boolean gzip, Authentication authentication) {
+        // Every export covers all employees, so it is limited to the same roles as the payslip listing.
+        if (!SalaryServices.isPayrollStaff(authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to export " + export.name());
+        }
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (format != null && !ndjson && !"csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().body("Unsupported format: " + format);
+        }
+        String filename = export.name() + (ndjson ? ".ndjson" : ".csv") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(ndjson ? "application/x-ndjson" : "text/csv");
+
+        StreamingResponseBody body = out -> {
+            // syncFlush, so each periodic flush sends what has been compressed so far.
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192, true) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    write(export, ndjson, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            if (target instanceof GZIPOutputStream gz) gz.finish();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    private void write(Export export, boolean ndjson, Writer writer) throws IOException {
+        JsonGenerator json = ndjson ? objectMapper.getFactory().createGenerator(writer) : null;
+        if (ndjson) {
+            // One object per line: drop the default space Jackson puts between root values.
+            json.setRootValueSeparator(null);
+        } else {
+            writeCsvRow(writer, export.columns());
+        }
+
+        try (Stream<Object[]> rows = entityManager.createQuery(export.jpql(), Object[].class)
+                .setHint("org.hibernate.fetchSize", STREAMING_FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            Iterator<Object[]> it = rows.iterator();
+            long count = 0;
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                if (ndjson) {
+                    json.writeStartObject();
+                    for (int i = 0; i < export.columns().length; i++) {
+                        json.writeFieldName(export.columns()[i]);
+                        json.writeObject(plain(row[i]));
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                } else {
+                    String[] values = new String[row.length];
+                    for (int i = 0; i < row.length; i++) {
+                        Object value = plain(row[i]);
+                        values[i] = value == null ? "" : value.toString();
+                    }
+                    writeCsvRow(writer, values);
+                }
+                if (++count % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+                if (count % FLUSH_EVERY == 0) {
+                    if (json != null) json.flush();
+                    writer.flush();
+                }
+            }
+        }
+        if (json != null) json.flush();
+    }
+
+    private static Object plain(Object value) {
+        if (value instanceof java.sql.Date date) return date.toString();
+        if (value instanceof Date date) return date.toInstant().toString();
+        if (value instanceof Enum<?> e) return e.name();
+        if (value instanceof java.time.temporal.TemporalAccessor t) return t.toString();
+        return value;
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            String value = values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,111 @@
+package com.ems.backend.Services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Treap of closed integer intervals ordered by (start, id) and augmented with the largest end
+ * in each subtree, so overlap queries skip every subtree that ends before the query starts.
+ * Inserts, removals and queries are O(log n) expected plus the number of matches. Not thread safe.
+ */
+public class IntervalTree {
+
+    public record Interval(long id, int start, int end) {
+    }
+
+    private static final class Node {
+        final Interval interval;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int maxEnd;
+
+        Node(Interval interval) {
+            this.interval = interval;
+            this.maxEnd = interval.end();
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void insert(long id, int start, int end) {
+        Node[] parts = split(root, start, id);
+        root = merge(merge(parts[0], new Node(new Interval(id, start, end))), parts[1]);
+        size++;
+    }
+
+    /**
+     * Removes the interval with this id and start; returns false if it was not present.
+     */
+    public boolean remove(long id, int start) {
+        Node[] lower = split(root, start, id);
+        Node[] upper = split(lower[1], start, id + 1);
+        boolean removed = upper[0] != null;
+        root = merge(lower[0], upper[1]);
+        if (removed) size--;
+        return removed;
+    }
+
+    /**
+     * Every interval that shares at least one point with [start, end].
+     */
+    public List<Interval> overlapping(int start, int end) {
+        List<Interval> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    private static void collect(Node node, int start, int end, List<Interval> result) {
+        if (node == null || node.maxEnd < start) return;
+        collect(node.left, start, end, result);
+        if (node.interval.start() > end) return; // This node and its right subtree start too late.
+        if (node.interval.end() >= start) result.add(node.interval);
+        collect(node.right, start, end, result);
+    }
+
+    // Splits into keys < (start, id) and keys >= (start, id).
+    private static Node[] split(Node node, int start, long id) {
+        if (node == null) return new Node[]{null, null};
+        if (compare(node.interval, start, id) < 0) {
+            Node[] parts = split(node.right, start, id);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, start, id);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int compare(Interval interval, int start, long id) {
+        int byStart = Integer.compare(interval.start(), start);
+        return byStart != 0 ? byStart : Long.compare(interval.id(), id);
+    }
+
+    private static void update(Node node) {
+        int max = node.interval.end();
+        if (node.left != null && node.left.maxEnd > max) max = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd > max) max = node.right.maxEnd;
+        node.maxEnd = max;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ems.backend.Services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page cursors for keyset-paginated listings: the last row's sort key as unpadded base64url,
+ * so clients pass it back without parsing or escaping it.
+ */
+public final class KeysetCursor {
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the key the cursor was encoded from; throws IllegalArgumentException if it is not valid base64url.
+     */
+    public static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.Leave;
+import com.ems.backend.Models.LeaveStatus;
+
+/**
+ * Published by the leave write paths once a new request or a status change has been committed,
+ * so in-memory leave indexes can update themselves. previousStatus is null for a new request.
+ */
+public record LeaveChangedEvent(Leave leave, LeaveStatus previousStatus) {
+}
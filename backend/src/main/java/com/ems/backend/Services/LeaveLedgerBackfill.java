@@ -0,0 +1,55 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.Leave;
+import com.ems.backend.Repositories.LeaveLedgerRepo;
+import com.ems.backend.Repositories.LeaveRepo;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Seeds the leave ledger from the existing leave requests on the first start after the
+ * ledger was introduced, one page per transaction. Does nothing once the ledger has rows.
+ */
+@Component
+public class LeaveLedgerBackfill implements ApplicationRunner {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final LeaveRepo leaveRepo;
+    private final LeaveLedgerRepo ledgerRepo;
+    private final LeaveLedgerService ledgerService;
+    private final TransactionTemplate transaction;
+
+    public LeaveLedgerBackfill(LeaveRepo leaveRepo, LeaveLedgerRepo ledgerRepo, LeaveLedgerService ledgerService,
+                               PlatformTransactionManager transactionManager) {
+        this.leaveRepo = leaveRepo;
+        this.ledgerRepo = ledgerRepo;
+        this.ledgerService = ledgerService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (ledgerRepo.count() > 0 || leaveRepo.count() == 0) {
+            return;
+        }
+        int page = 0;
+        boolean more = true;
+        while (more) {
+            int current = page++;
+            more = Boolean.TRUE.equals(transaction.execute(status -> {
+                Page<Leave> leaves = leaveRepo.findAll(PageRequest.of(current, PAGE_SIZE, Sort.by("id")));
+                for (Leave leave : leaves) {
+                    ledgerService.recordTransition(leave, null, leave.getStatus());
+                }
+                return leaves.hasNext();
+            }));
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.LedgerEntryType;
+import com.ems.backend.Models.Leave;
+import com.ems.backend.Models.LeaveBalance;
+import com.ems.backend.Models.LeaveLedgerEntry;
+import com.ems.backend.Models.LeaveStatus;
+import com.ems.backend.Models.LeaveType;
+import com.ems.backend.Repositories.LeaveBalanceRepo;
+import com.ems.backend.Repositories.LeaveLedgerRepo;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the leave ledger and the materialized {@link LeaveBalance} rows in step.
+ * Every leave status change appends ledger entries and applies the same deltas to the balance
+ * in the caller's transaction, so a balance read is a single row lookup.
+ * A leave counts its calendar days in the year each day falls in; PENDING days are reserved
+ * and APPROVED days are used. The first movement of a year opens the balance with that year's entitlement.
+ */
+@Service
+public class LeaveLedgerService {
+
+    private final LeaveLedgerRepo ledgerRepo;
+    private final LeaveBalanceRepo balanceRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<LeaveType, Integer> entitlements = new HashMap<>();
+
+    public LeaveLedgerService(LeaveLedgerRepo ledgerRepo, LeaveBalanceRepo balanceRepo, JdbcTemplate jdbcTemplate,
+                              Environment environment) {
+        this.ledgerRepo = ledgerRepo;
+        this.balanceRepo = balanceRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        for (LeaveType type : LeaveType.values()) {
+            String key = "ems.leave.entitlement." + type.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            entitlements.put(type, environment.getProperty(key, Integer.class, 0));
+        }
+    }
+
+    /**
+     * Records the move of a leave from one status to another; from is null for a new request.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Leave leave, LeaveStatus from, LeaveStatus to) {
+        for (LeaveLedgerEntry entry : movements(leave, from, to)) {
+            append(entry);
+        }
+    }
+
+    /**
+     * Same as {@link #recordTransition} for many leaves at once: ledger rows go out as one JDBC batch and
+     * balance deltas are summed per (employee, type, year) into one batched UPDATE. Each change event
+     * carries the leave in its new status and the status it had before.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(List<LeaveChangedEvent> changes) {
+        List<LeaveLedgerEntry> entries = new ArrayList<>();
+        Set<Long> employeeIds = new HashSet<>();
+        for (LeaveChangedEvent change : changes) {
+            entries.addAll(movements(change.leave(), change.previousStatus(), change.leave().getStatus()));
+            employeeIds.add(change.leave().getEmployee().getId());
+        }
+        if (entries.isEmpty()) return;
+
+        Set<String> existing = new HashSet<>();
+        for (Object[] row : balanceRepo.findKeysByEmployeeIds(employeeIds)) {
+            existing.add(key((Long) row[0], (LeaveType) row[1], (Integer) row[2]));
+        }
+        Map<String, int[]> deltas = new LinkedHashMap<>();
+        List<LeaveLedgerEntry> rows = new ArrayList<>();
+        for (LeaveLedgerEntry entry : entries) {
+            String key = key(entry.getEmployeeId(), entry.getLeaveType(), entry.getYear());
+            if (existing.add(key)) {
+                LeaveLedgerEntry accrual = openBalance(entry.getEmployeeId(), entry.getLeaveType(), entry.getYear());
+                if (accrual != null) rows.add(accrual);
+            }
+            rows.add(entry);
+            int[] delta = deltas.computeIfAbsent(key, k -> new int[3]);
+            delta[0] += entry.getAccruedDays();
+            delta[1] += entry.getPendingDays();
+            delta[2] += entry.getUsedDays();
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(
+                "insert into leave_ledger (employee_id, leave_type, leave_year, entry_type, accrued_days, pending_days, " +
+                        "used_days, leave_id, created_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                rows, rows.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.getEmployeeId());
+                    ps.setString(2, entry.getLeaveType().name());
+                    ps.setInt(3, entry.getYear());
+                    ps.setString(4, entry.getEntryType().name());
+                    ps.setInt(5, entry.getAccruedDays());
+                    ps.setInt(6, entry.getPendingDays());
+                    ps.setInt(7, entry.getUsedDays());
+                    if (entry.getLeaveId() == null) ps.setNull(8, Types.BIGINT);
+                    else ps.setLong(8, entry.getLeaveId());
+                    ps.setTimestamp(9, now);
+                });
+
+        List<Map.Entry<String, int[]>> updates = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(
+                "update leave_balances set accrued = accrued + ?, pending = pending + ?, used = used + ? " +
+                        "where employee_id = ? and leave_type = ? and leave_year = ?",
+                updates, updates.size(), (ps, update) -> {
+                    String[] parts = update.getKey().split(":");
+                    int[] delta = update.getValue();
+                    ps.setInt(1, delta[0]);
+                    ps.setInt(2, delta[1]);
+                    ps.setInt(3, delta[2]);
+                    ps.setLong(4, Long.parseLong(parts[0]));
+                    ps.setString(5, parts[1]);
+                    ps.setInt(6, Integer.parseInt(parts[2]));
+                });
+    }
+
+    // Unsaved ledger rows for one leave's move between statuses, one per calendar year it touches.
+    private List<LeaveLedgerEntry> movements(Leave leave, LeaveStatus from, LeaveStatus to) {
+        List<LeaveLedgerEntry> entries = new ArrayList<>();
+        if (from == to) return entries;
+        LedgerEntryType entryType = entryType(from, to);
+        Long employeeId = leave.getEmployee().getId();
+        for (Map.Entry<Integer, Integer> chunk : daysPerYear(leave.getStartDate(), leave.getEndDate()).entrySet()) {
+            int days = chunk.getValue();
+            int pending = bucket(to, LeaveStatus.PENDING, days) - bucket(from, LeaveStatus.PENDING, days);
+            int used = bucket(to, LeaveStatus.APPROVED, days) - bucket(from, LeaveStatus.APPROVED, days);
+            if (pending == 0 && used == 0) continue;
+            entries.add(entry(employeeId, leave.getLeaveType(), chunk.getKey(), entryType, 0, pending, used, leave.getId()));
+        }
+        return entries;
+    }
+
+    public List<LeaveBalance> balances(Long employeeId, Integer year) {
+        return year == null ? balanceRepo.findByEmployeeId(employeeId) : balanceRepo.findByEmployeeIdAndYear(employeeId, year);
+    }
+
+    /**
+     * Recomputes balance rows from the ledger (for one employee, or all when null) and
+     * overwrites any that drifted. Returns how many rows were checked and corrected.
+     */
+    @Transactional
+    public Map<String, Object> rebuild(Long employeeId) {
+        Map<String, LeaveBalance> current = new HashMap<>();
+        for (LeaveBalance balance : employeeId == null ? balanceRepo.findAll() : balanceRepo.findByEmployeeId(employeeId)) {
+            current.put(key(balance.getEmployeeId(), balance.getLeaveType(), balance.getYear()), balance);
+        }
+
+        int checked = 0;
+        int corrected = 0;
+        for (Object[] row : ledgerRepo.sumByBalance(employeeId)) {
+            Long rowEmployeeId = (Long) row[0];
+            LeaveType type = (LeaveType) row[1];
+            int year = (Integer) row[2];
+            int accrued = ((Number) row[3]).intValue();
+            int pending = ((Number) row[4]).intValue();
+            int used = ((Number) row[5]).intValue();
+            checked++;
+
+            LeaveBalance balance = current.get(key(rowEmployeeId, type, year));
+            if (balance != null && balance.getAccrued() == accrued && balance.getPending() == pending && balance.getUsed() == used) {
+                continue;
+            }
+            if (balance == null) {
+                balanceRepo.createIfAbsent(rowEmployeeId, type.name(), year, 0);
+            }
+            balanceRepo.overwrite(rowEmployeeId, type, year, accrued, pending, used);
+            corrected++;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("checked", checked);
+        result.put("corrected", corrected);
+        return result;
+    }
+
+    private void append(LeaveLedgerEntry entry) {
+        LeaveLedgerEntry accrual = openBalance(entry.getEmployeeId(), entry.getLeaveType(), entry.getYear());
+        if (accrual != null) {
+            ledgerRepo.save(accrual);
+        }
+        ledgerRepo.save(entry);
+        balanceRepo.addDeltas(entry.getEmployeeId(), entry.getLeaveType(), entry.getYear(),
+                entry.getAccruedDays(), entry.getPendingDays(), entry.getUsedDays());
+    }
+
+    /**
+     * Creates the balance row if it is missing, already holding the year's entitlement.
+     * Returns the matching (unsaved) ACCRUAL ledger row when the row was created here.
+     */
+    private LeaveLedgerEntry openBalance(Long employeeId, LeaveType type, int year) {
+        int entitlement = entitlements.getOrDefault(type, 0);
+        if (balanceRepo.createIfAbsent(employeeId, type.name(), year, entitlement) == 1 && entitlement != 0) {
+            return entry(employeeId, type, year, LedgerEntryType.ACCRUAL, entitlement, 0, 0, null);
+        }
+        return null;
+    }
+
+    private static LeaveLedgerEntry entry(Long employeeId, LeaveType type, int year, LedgerEntryType entryType,
+                                          int accrued, int pending, int used, Long leaveId) {
+        LeaveLedgerEntry entry = new LeaveLedgerEntry();
+        entry.setEmployeeId(employeeId);
+        entry.setLeaveType(type);
+        entry.setYear(year);
+        entry.setEntryType(entryType);
+        entry.setAccruedDays(accrued);
+        entry.setPendingDays(pending);
+        entry.setUsedDays(used);
+        entry.setLeaveId(leaveId);
+        return entry;
+    }
+
+    private static LedgerEntryType entryType(LeaveStatus from, LeaveStatus to) {
+        boolean wasPending = from == LeaveStatus.PENDING;
+        boolean wasApproved = from == LeaveStatus.APPROVED;
+        if (to == LeaveStatus.PENDING) return wasApproved ? LedgerEntryType.ADJUSTMENT : LedgerEntryType.RESERVE;
+        if (to == LeaveStatus.APPROVED) return LedgerEntryType.DEBIT;
+        if (wasApproved) return LedgerEntryType.REVERSAL;
+        return wasPending ? LedgerEntryType.RELEASE : LedgerEntryType.ADJUSTMENT;
+    }
+
+    private static int bucket(LeaveStatus status, LeaveStatus bucket, int days) {
+        return status == bucket ? days : 0;
+    }
+
+    // Calendar days of the inclusive range, grouped by the year each day falls in.
+    static Map<Integer, Integer> daysPerYear(Date start, Date end) {
+        LocalDate from = toLocalDate(start);
+        LocalDate to = toLocalDate(end);
+        Map<Integer, Integer> days = new LinkedHashMap<>();
+        while (!from.isAfter(to)) {
+            LocalDate yearEnd = LocalDate.of(from.getYear(), 12, 31);
+            LocalDate chunkEnd = to.isBefore(yearEnd) ? to : yearEnd;
+            days.put(from.getYear(), (int) ChronoUnit.DAYS.between(from, chunkEnd) + 1);
+            from = chunkEnd.plusDays(1);
+        }
+        return days;
+    }
+
+    // Works for both java.util.Date and the java.sql.Date values Hibernate loads.
+    static LocalDate toLocalDate(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static String key(Long employeeId, LeaveType type, int year) {
+        return employeeId + ":" + type + ":" + year;
+    }
+}
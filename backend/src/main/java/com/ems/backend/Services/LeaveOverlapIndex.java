@@ -0,0 +1,153 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.Leave;
+import com.ems.backend.Models.LeaveStatus;
+import com.ems.backend.Repositories.LeaveRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers "does this employee already have leave on any of these days" from a per-employee
+ * {@link IntervalTree} of PENDING and APPROVED requests. Trees are built on first use and kept
+ * for the most recently checked employees; for any other employee the check is a single
+ * range query on (employee_id, status, startDate), after which that employee's tree is loaded.
+ * Trees follow {@link LeaveChangedEvent}s.
+ * LeaveServices holds {@link #lockFor} around check-then-insert so two requests for the same
+ * employee cannot both pass.
+ */
+@Service
+public class LeaveOverlapIndex {
+
+    public static final List<LeaveStatus> ACTIVE = List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+
+    private static final int STRIPES = 64;
+
+    public record Conflict(Long leaveId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private final LeaveRepo leaveRepo;
+    private final int maxEmployees;
+
+    // Access-ordered so the least recently checked employee's tree is dropped first.
+    private final LinkedHashMap<Long, IntervalTree> trees = new LinkedHashMap<>(256, 0.75f, true);
+    private final Object[] locks = new Object[STRIPES];
+    // Bumped on every write so a tree loaded concurrently with a write is not published stale.
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private final LongAdder treeHits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public LeaveOverlapIndex(LeaveRepo leaveRepo,
+                             @Value("${ems.leave.overlap.max-employees:10000}") int maxEmployees) {
+        this.leaveRepo = leaveRepo;
+        this.maxEmployees = maxEmployees;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public Object lockFor(Long employeeId) {
+        return locks[stripe(employeeId)];
+    }
+
+    public List<Conflict> findOverlaps(Long employeeId, Date startDate, Date endDate) {
+        int start = epochDay(startDate);
+        int end = epochDay(endDate);
+
+        IntervalTree tree;
+        synchronized (trees) {
+            tree = trees.get(employeeId);
+        }
+        if (tree != null) {
+            treeHits.increment();
+            synchronized (tree) {
+                List<Conflict> conflicts = new ArrayList<>();
+                for (IntervalTree.Interval interval : tree.overlapping(start, end)) {
+                    conflicts.add(new Conflict(interval.id(), LocalDate.ofEpochDay(interval.start()), LocalDate.ofEpochDay(interval.end())));
+                }
+                return conflicts;
+            }
+        }
+
+        fallbacks.increment();
+        List<Conflict> conflicts = new ArrayList<>();
+        for (Object[] row : leaveRepo.findOverlappingIntervals(employeeId, ACTIVE, startDate, endDate)) {
+            conflicts.add(new Conflict((Long) row[0], toLocalDate((Date) row[1]), toLocalDate((Date) row[2])));
+        }
+        warm(employeeId);
+        return conflicts;
+    }
+
+    @EventListener
+    public void onLeaveChanged(LeaveChangedEvent event) {
+        Leave leave = event.leave();
+        LeaveStatus previousStatus = event.previousStatus();
+        Long employeeId = leave.getEmployee().getId();
+        versions.incrementAndGet(stripe(employeeId));
+        IntervalTree tree;
+        synchronized (trees) {
+            tree = trees.get(employeeId);
+        }
+        if (tree == null) return;
+
+        boolean wasActive = previousStatus != null && ACTIVE.contains(previousStatus);
+        boolean isActive = ACTIVE.contains(leave.getStatus());
+        int start = epochDay(leave.getStartDate());
+        synchronized (tree) {
+            if (wasActive && !isActive) {
+                tree.remove(leave.getId(), start);
+            } else if (!wasActive && isActive) {
+                tree.insert(leave.getId(), start, epochDay(leave.getEndDate()));
+            }
+        }
+    }
+
+    private void warm(Long employeeId) {
+        int stripe = stripe(employeeId);
+        long version = versions.get(stripe);
+        IntervalTree tree = new IntervalTree();
+        for (Object[] row : leaveRepo.findIntervals(employeeId, ACTIVE)) {
+            tree.insert((Long) row[0], epochDay((Date) row[1]), epochDay((Date) row[2]));
+        }
+        synchronized (trees) {
+            if (versions.get(stripe) != version) return;
+            trees.putIfAbsent(employeeId, tree);
+            if (trees.size() > maxEmployees) {
+                trees.remove(trees.keySet().iterator().next());
+            }
+        }
+    }
+
+    private static int stripe(Long employeeId) {
+        return (int) Math.floorMod(employeeId, (long) STRIPES);
+    }
+
+    private static int epochDay(Date date) {
+        return (int) toLocalDate(date).toEpochDay();
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return LeaveLedgerService.toLocalDate(date);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (trees) {
+            stats.put("residentEmployees", trees.size());
+        }
+        stats.put("maxEmployees", maxEmployees);
+        stats.put("treeHits", treeHits.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        return stats;
+    }
+}
@@ -1,28 +1,94 @@
 package com.ems.backend.Services;
 
+import com.ems.backend.DTO.BulkStatusRequest;
+import com.ems.backend.DTO.BulkStatusResult;
+import com.ems.backend.DTO.KeysetPage;
 import com.ems.backend.DTO.LeaveDTO;
+import com.ems.backend.Models.Employee;
 import com.ems.backend.Models.Leave;
 import com.ems.backend.Models.LeaveStatus;
+import com.ems.backend.Models.LeaveType;
 import com.ems.backend.Repositories.LeaveRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class LeaveServices {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BULK_SIZE = 500;
+    // Longest single request; also bounds the per-day and per-year state a request creates.
+    private static final int MAX_LEAVE_DAYS = 366;
+
     @Autowired
     LeaveRepo leaveRepo;
+    @Autowired
+    BlobStore blobStore;
+    @Autowired
+    LeaveLedgerService leaveLedgerService;
+    @Autowired
+    LeaveOverlapIndex leaveOverlapIndex;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    TeamLeaveCalendar teamLeaveCalendar;
+
+    private final TransactionTemplate transaction;
+
+    public LeaveServices(PlatformTransactionManager transactionManager) {
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
 
     public ResponseEntity<?> applyLeave(Leave data) {
         try{
-            leaveRepo.save(data);
+            if (data.getEndDate().before(data.getStartDate())) {
+                return ResponseEntity.badRequest().body("End date cannot be before start date.");
+            }
+            long days = ChronoUnit.DAYS.between(LeaveLedgerService.toLocalDate(data.getStartDate()),
+                    LeaveLedgerService.toLocalDate(data.getEndDate())) + 1;
+            if (days > MAX_LEAVE_DAYS) {
+                return ResponseEntity.badRequest().body("A leave request can cover at most " + MAX_LEAVE_DAYS + " days.");
+            }
+            Long employeeId = data.getEmployee().getId();
+            // Held across check and insert so two requests for the same employee cannot both pass.
+            synchronized (leaveOverlapIndex.lockFor(employeeId)) {
+                List<LeaveOverlapIndex.Conflict> conflicts = leaveOverlapIndex.findOverlaps(employeeId, data.getStartDate(), data.getEndDate());
+                if (!conflicts.isEmpty()) {
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("message", "Leave overlaps an existing pending or approved request.");
+                    body.put("conflicts", conflicts);
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+                }
+                transaction.executeWithoutResult(status -> {
+                    leaveRepo.save(data);
+                    leaveLedgerService.recordTransition(data, null, data.getStatus());
+                });
+                eventPublisher.publishEvent(new LeaveChangedEvent(data, null));
+            }
             return ResponseEntity.ok().body(data);
         } catch (RuntimeException e) {
             System.out.println(e.getMessage());
@@ -30,6 +96,15 @@ public class LeaveServices {
         }
     }
 
+    public ResponseEntity<?> getAttachment(Long id, String ifNoneMatch, String range) {
+        try{
+            return BlobResponses.serve(blobStore, leaveRepo.findAttachmentRefById(id), ifNoneMatch, range);
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
     public ResponseEntity<?> getHistory(Long id) {
         try{
             List<Leave> leaves = leaveRepo.findByEmployeeId(id);
@@ -42,9 +117,12 @@ public class LeaveServices {
 
     public ResponseEntity<?> cancelLeave(Leave data) {
         try{
-            data.setStatus(LeaveStatus.CANCELLED);
-            leaveRepo.save(data);
-            List<Leave> leaves = leaveRepo.findByEmployeeId(data.getEmployee().getId());
+            // The client copy only names the request and the status it was cancelled from.
+            TransitionOutcome outcome = transition(data.getId(), data.getStatus(), LeaveStatus.CANCELLED);
+            if (outcome == null) return ResponseEntity.notFound().build();
+            if (outcome.change() == null) return conflict(data.getId(), outcome.current());
+            eventPublisher.publishEvent(outcome.change());
+            List<Leave> leaves = leaveRepo.findByEmployeeId(outcome.change().leave().getEmployee().getId());
             return ResponseEntity.ok().body(leaves);
         } catch (RuntimeException e) {
             System.out.println(e.getMessage());
@@ -54,10 +132,7 @@ public class LeaveServices {
 
     public ResponseEntity<?> getAllHistory() {
         try{
-            List<Leave> data = leaveRepo.findAll();
-            List<LeaveDTO> res = data.stream()
-                    .map(LeaveDTO::new)
-                    .collect(Collectors.toList());
+            List<LeaveDTO> res = leaveRepo.findLeaveViews(null, null, null, null, null, null, 0);
             return ResponseEntity.ok().body(res);
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -65,16 +140,261 @@ public class LeaveServices {
         }
     }
 
+    /**
+     * Keyset-paginated leave requests, optionally limited to one manager's direct reports.
+     */
+    public ResponseEntity<?> queryLeaves(Long managerId, String status, String leaveType, String from, String to,
+                                         String cursor, Integer size) {
+        try{
+            LeaveStatus statusFilter;
+            LeaveType typeFilter;
+            try {
+                statusFilter = status == null || status.isEmpty() ? null : LeaveStatus.valueOf(status.toUpperCase());
+                typeFilter = leaveType == null || leaveType.isEmpty() ? null : LeaveType.valueOf(leaveType.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid status or leaveType");
+            }
+
+            Date fromDate;
+            Date toDate;
+            try {
+                SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+                fromDate = from == null || from.isEmpty() ? null : formatter.parse(from);
+                toDate = to == null || to.isEmpty() ? null : formatter.parse(to);
+            } catch (ParseException e) {
+                return ResponseEntity.badRequest().body("Invalid date format. Please use yyyy-MM-dd.");
+            }
+
+            Long afterId = null;
+            if (cursor != null && !cursor.isEmpty()) {
+                try {
+                    afterId = Long.parseLong(KeysetCursor.decode(cursor));
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().body("Invalid cursor");
+                }
+            }
+
+            int limit = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+            List<LeaveDTO> rows = leaveRepo.findLeaveViews(managerId, statusFilter, typeFilter, fromDate, toDate, afterId, limit + 1);
+            String nextCursor = null;
+            if (rows.size() > limit) {
+                rows = rows.subList(0, limit);
+                String key = Long.toString(rows.get(limit - 1).getId());
+                nextCursor = KeysetCursor.encode(key);
+            }
+            return ResponseEntity.ok().body(new KeysetPage<>(rows, nextCursor));
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    /**
+     * Number of leave requests per status, for everyone or for one manager's direct reports,
+     * so list pages can show totals without downloading every row.
+     */
+    public ResponseEntity<?> countLeavesByStatus(Long managerId) {
+        try{
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (LeaveStatus status : LeaveStatus.values()) counts.put(status.name(), 0L);
+            for (Object[] row : leaveRepo.countByStatus(managerId)) {
+                counts.put(((LeaveStatus) row[0]).name(), (Long) row[1]);
+            }
+            return ResponseEntity.ok().body(counts);
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    /**
+     * Moves many leave requests to one status: the rows are locked and loaded, each transition is
+     * validated against the locked status, one UPDATE per source status applies them, and the ledger
+     * is written in batches. A concurrent decision either commits before the lock is taken (and is
+     * seen here) or waits until this one commits. Returns a result per id.
+     */
+    public ResponseEntity<?> bulkChangeStatus(BulkStatusRequest request) {
+        try{
+            if (request == null || request.getIds() == null || request.getIds().isEmpty() || request.getStatus() == null) {
+                return ResponseEntity.badRequest().body("ids and status are required");
+            }
+            if (request.getIds().size() > MAX_BULK_SIZE) {
+                return ResponseEntity.badRequest().body("At most " + MAX_BULK_SIZE + " leave requests can be changed at once");
+            }
+            LeaveStatus target;
+            try {
+                target = LeaveStatus.valueOf(request.getStatus().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid status: " + request.getStatus());
+            }
+            Set<Long> ids = new LinkedHashSet<>(request.getIds());
+
+            Map<Long, BulkStatusResult> results = new LinkedHashMap<>();
+            List<LeaveChangedEvent> changes = transaction.execute(status -> {
+                // Lock first: no one else can move these rows until commit, so each guarded UPDATE
+                // below changes exactly the rows grouped under its source status.
+                Map<Long, LeaveStatus> locked = new HashMap<>();
+                for (Object[] row : leaveRepo.lockStatuses(ids)) {
+                    locked.put(((Number) row[0]).longValue(), LeaveStatus.valueOf((String) row[1]));
+                }
+                if (locked.isEmpty()) return List.<LeaveChangedEvent>of();
+                Map<Long, Leave> leaves = new HashMap<>();
+                Map<LeaveStatus, List<Long>> bySource = new EnumMap<>(LeaveStatus.class);
+                for (Object[] row : leaveRepo.findTransitionRows(locked.keySet())) {
+                    Leave leave = transitionView(row);
+                    leave.setStatus(locked.get(leave.getId()));
+                    leaves.put(leave.getId(), leave);
+                    if (leave.getStatus().canTransitionTo(target)) {
+                        bySource.computeIfAbsent(leave.getStatus(), k -> new ArrayList<>()).add(leave.getId());
+                    } else {
+                        results.put(leave.getId(), new BulkStatusResult(leave.getId(), "INVALID_TRANSITION", leave.getStatus()));
+                    }
+                }
+
+                List<LeaveChangedEvent> applied = new ArrayList<>();
+                for (Map.Entry<LeaveStatus, List<Long>> group : bySource.entrySet()) {
+                    List<Long> groupIds = group.getValue();
+                    int updated = leaveRepo.transitionAll(groupIds, group.getKey(), target);
+                    if (updated != groupIds.size()) {
+                        // Cannot happen while the rows are locked; roll back rather than guess which moved.
+                        throw new IllegalStateException("Expected " + groupIds.size() + " leave(s) in " + group.getKey() + ", updated " + updated);
+                    }
+                    for (Long id : groupIds) {
+                        Leave leave = leaves.get(id);
+                        leave.setStatus(target);
+                        applied.add(new LeaveChangedEvent(leave, group.getKey()));
+                        results.put(id, new BulkStatusResult(id, "UPDATED", target));
+                    }
+                }
+                leaveLedgerService.recordTransitions(applied);
+                return applied;
+            });
+            changes.forEach(eventPublisher::publishEvent);
+
+            List<BulkStatusResult> body = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                body.add(results.getOrDefault(id, new BulkStatusResult(id, "NOT_FOUND", null)));
+            }
+            return ResponseEntity.ok().body(body);
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    // A detached Leave with just the fields the ledger and leave indexes read.
+    private static Leave transitionView(Object[] row) {
+        Employee employee = new Employee();
+        employee.setId((Long) row[5]);
+        employee.setFirstName((String) row[6]);
+        employee.setLastName((String) row[7]);
+        Leave leave = new Leave();
+        leave.setId((Long) row[0]);
+        leave.setStatus((LeaveStatus) row[1]);
+        leave.setLeaveType((LeaveType) row[2]);
+        leave.setStartDate((Date) row[3]);
+        leave.setEndDate((Date) row[4]);
+        leave.setEmployee(employee);
+        return leave;
+    }
+
+    public ResponseEntity<?> findOverlaps(Long employeeId, String startDate, String endDate) {
+        try{
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+            Date start = formatter.parse(startDate);
+            Date end = formatter.parse(endDate);
+            if (end.before(start)) return ResponseEntity.badRequest().body("End date cannot be before start date.");
+            return ResponseEntity.ok().body(leaveOverlapIndex.findOverlaps(employeeId, start, end));
+        } catch (ParseException e) {
+            return ResponseEntity.badRequest().body("Invalid date format. Please use yyyy-MM-dd.");
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    public ResponseEntity<?> getTeamCalendar(Long managerId, String from, String to, boolean includePending) {
+        try{
+            LocalDate fromDate = from == null || from.isEmpty() ? LocalDate.now() : LocalDate.parse(from);
+            LocalDate toDate = to == null || to.isEmpty() ? fromDate.plusDays(TeamLeaveCalendar.MAX_WINDOW_DAYS - 1) : LocalDate.parse(to);
+            if (toDate.isBefore(fromDate)) return ResponseEntity.badRequest().body("End date cannot be before start date.");
+            if (ChronoUnit.DAYS.between(fromDate, toDate) >= TeamLeaveCalendar.MAX_WINDOW_DAYS) {
+                return ResponseEntity.badRequest().body("The window can be at most " + TeamLeaveCalendar.MAX_WINDOW_DAYS + " days.");
+            }
+            Map<String, Object> calendar = teamLeaveCalendar.teamCalendar(managerId, fromDate, toDate, includePending);
+            if (calendar == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Employee not found with ID: " + managerId);
+            return ResponseEntity.ok().body(calendar);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid date format. Please use yyyy-MM-dd.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    public ResponseEntity<?> getBalances(Long employeeId, Integer year) {
+        try{
+            return ResponseEntity.ok().body(leaveLedgerService.balances(employeeId, year));
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    public ResponseEntity<?> rebuildBalances(Long employeeId) {
+        try{
+            return ResponseEntity.ok().body(leaveLedgerService.rebuild(employeeId));
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
     public ResponseEntity<?> changeStatus(Long id, String actionType) {
         try{
-            Leave data = leaveRepo.findById(id).orElse(null);
-            assert data != null;
-            data.setStatus(LeaveStatus.valueOf(actionType));
-            leaveRepo.save(data);
-            return ResponseEntity.ok().body(new LeaveDTO(data));
+            LeaveStatus newStatus = LeaveStatus.valueOf(actionType);
+            TransitionOutcome outcome = transition(id, null, newStatus);
+            if (outcome == null) return ResponseEntity.notFound().build();
+            if (outcome.change() == null) return conflict(id, outcome.current());
+            eventPublisher.publishEvent(outcome.change());
+            return ResponseEntity.ok().body(leaveRepo.findLeaveView(id));
         } catch (Exception e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server Error");
         }
     }
+
+    // change is null when the request was not in a state that allows the move; current is what it was found in.
+    private record TransitionOutcome(LeaveStatus current, LeaveChangedEvent change) {
+    }
+
+    /**
+     * Moves one leave request with a conditional UPDATE on its current status, so two reviewers
+     * deciding the same request cannot both win. Returns null when the request does not exist.
+     */
+    private TransitionOutcome transition(Long id, LeaveStatus expected, LeaveStatus target) {
+        return transaction.execute(status -> {
+            List<Object[]> rows = leaveRepo.findTransitionRows(List.of(id));
+            if (rows.isEmpty()) return null;
+            Leave leave = transitionView(rows.get(0));
+            LeaveStatus previous = leave.getStatus();
+            if ((expected != null && expected != previous) || !previous.canTransitionTo(target)
+                    || leaveRepo.transitionAll(List.of(id), previous, target) == 0) {
+                return new TransitionOutcome(previous, null);
+            }
+            leave.setStatus(target);
+            leaveLedgerService.recordTransition(leave, previous, target);
+            return new TransitionOutcome(previous, new LeaveChangedEvent(leave, previous));
+        });
+    }
+
+    private ResponseEntity<?> conflict(Long id, LeaveStatus seen) {
+        LeaveDTO current = leaveRepo.findLeaveView(id);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", "Leave request is " + (current == null ? seen : current.getStatus()) + " and cannot be changed");
+        body.put("current", current);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
 }
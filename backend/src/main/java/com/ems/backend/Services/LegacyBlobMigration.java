@@ -0,0 +1,70 @@
+package com.ems.backend.Services;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves files still held in the old LOB columns into the blob store on startup,
+ * one row at a time, and clears the column once the reference is written.
+ * Does nothing on databases created after the LOB columns were removed.
+ */
+@Component
+public class LegacyBlobMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+
+    public LegacyBlobMigration(JdbcTemplate jdbcTemplate, BlobStore blobStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate("employee", "id", "profile_pic", "profile_pic_ref");
+        migrate("employee", "id", "aadhaar_pan", "aadhaar_pan_ref");
+        migrate("leaves", "id", "attachment", "attachment_ref");
+    }
+
+    private void migrate(String table, String idColumn, String lobColumn, String refColumn) {
+        List<Long> ids;
+        try {
+            ids = jdbcTemplate.queryForList(
+                    "select " + idColumn + " from " + table + " where " + lobColumn + " is not null and " + refColumn + " is null",
+                    Long.class);
+        } catch (DataAccessException e) {
+            // The legacy column does not exist, nothing to migrate.
+            return;
+        }
+
+        for (Long id : ids) {
+            String hash = jdbcTemplate.query(
+                    "select " + lobColumn + " from " + table + " where " + idColumn + " = ?",
+                    rs -> {
+                        if (!rs.next()) return null;
+                        try (InputStream in = rs.getBinaryStream(1)) {
+                            return in == null ? null : blobStore.store(in);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    id);
+            if (hash != null) {
+                jdbcTemplate.update(
+                        "update " + table + " set " + refColumn + " = ?, " + lobColumn + " = null where " + idColumn + " = ?",
+                        hash, id);
+            }
+        }
+        if (!ids.isEmpty()) {
+            System.out.println("Migrated " + ids.size() + " " + table + "." + lobColumn + " values to the blob store");
+        }
+    }
+}
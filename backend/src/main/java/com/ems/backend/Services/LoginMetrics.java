@@ -0,0 +1,78 @@
+package com.ems.backend.Services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end login latency, from the request reaching the controller to the response being ready,
+ * including the hashing queue wait and the profile lookup. Latencies are counted in power-of-two
+ * millisecond buckets, so the reported percentiles are upper bounds within a factor of two.
+ */
+@Service
+public class LoginMetrics {
+
+    // Bucket i counts latencies below 2^i ms; the last bucket takes everything slower.
+    private static final int BUCKETS = 16;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LoginMetrics() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long startNanos, int httpStatus) {
+        long nanos = System.nanoTime() - startNanos;
+        if (httpStatus == 200) {
+            succeeded.increment();
+        } else if (httpStatus == 429) {
+            throttled.increment();
+        } else {
+            failed.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        long millis = nanos / 1_000_000;
+        int bucket = millis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+        buckets[Math.min(bucket, BUCKETS - 1)].increment();
+    }
+
+    public Map<String, Object> stats() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("avgLatencyMs", total == 0 ? 0.0 : totalNanos.sum() / (double) total / 1_000_000);
+        stats.put("p50LatencyMsAtMost", percentile(counts, total, 0.50));
+        stats.put("p99LatencyMsAtMost", percentile(counts, total, 0.99));
+        stats.put("maxLatencyMs", maxNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private static long percentile(long[] counts, long total, double fraction) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return 1L << i;
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
@@ -0,0 +1,281 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.MailMessage;
+import com.ems.backend.Models.MailStatus;
+import com.ems.backend.Repositories.MailOutboxRepo;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers queued {@link MailMessage}s from the mail_outbox table.
+ * A fixed pool of workers takes message ids from an in-memory queue; each worker keeps one SMTP
+ * {@link Transport} open across messages and closes it after it has been idle for a while.
+ * A poller re-queues due retries and anything left over from a previous run, so the table,
+ * not the in-memory queue, is the source of truth. Failed sends are retried with exponential
+ * backoff and moved to DEAD after the last attempt.
+ */
+@Service
+public class MailOutboxService {
+
+    private static final int POLL_BATCH = 100;
+    private static final long STALE_SENDING_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final MailOutboxRepo outboxRepo;
+    private final JavaMailSenderImpl mailSender;
+    private final int workers;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final long idleCloseMillis;
+    private final long pollIntervalMillis;
+
+    private final LinkedBlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    // Ids currently in the queue, so the poller does not add the same message twice.
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService workerPool;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mail-outbox-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running = true;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder sendMillisTotal = new LongAdder();
+    private final LongAdder deliveryMillisTotal = new LongAdder();
+    private final AtomicLong sendMillisMax = new AtomicLong();
+    private final AtomicInteger openTransports = new AtomicInteger();
+
+    public MailOutboxService(MailOutboxRepo outboxRepo,
+                             JavaMailSenderImpl mailSender,
+                             @Value("${ems.mail.workers:2}") int workers,
+                             @Value("${ems.mail.max-attempts:6}") int maxAttempts,
+                             @Value("${ems.mail.retry-base-seconds:30}") long retryBaseSeconds,
+                             @Value("${ems.mail.retry-max-seconds:3600}") long retryMaxSeconds,
+                             @Value("${ems.mail.idle-close-seconds:60}") long idleCloseSeconds,
+                             @Value("${ems.mail.poll-interval-seconds:5}") long pollIntervalSeconds) {
+        this.outboxRepo = outboxRepo;
+        this.mailSender = mailSender;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = TimeUnit.SECONDS.toMillis(retryBaseSeconds);
+        this.retryMaxMillis = TimeUnit.SECONDS.toMillis(retryMaxSeconds);
+        this.idleCloseMillis = TimeUnit.SECONDS.toMillis(idleCloseSeconds);
+        this.pollIntervalMillis = TimeUnit.SECONDS.toMillis(pollIntervalSeconds);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stores the message and hands it to a worker. Returns as soon as the row is written.
+     */
+    public Long enqueue(String to, String subject, String htmlContent) {
+        return enqueue(to, subject, htmlContent, false);
+    }
+
+    /**
+     * As {@link #enqueue(String, String, String)}; a sensitive body is blanked in the table once
+     * the message has been sent or given up on.
+     */
+    public Long enqueue(String to, String subject, String htmlContent, boolean sensitive) {
+        MailMessage message = new MailMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setBody(htmlContent);
+        message.setSensitive(sensitive);
+        outboxRepo.save(message);
+        offer(message.getId());
+        return message.getId();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        poller.shutdownNow();
+        workerPool.shutdownNow();
+    }
+
+    private void offer(Long id) {
+        if (queued.add(id)) {
+            queue.offer(id);
+        }
+    }
+
+    private void poll() {
+        try {
+            Date now = new Date();
+            outboxRepo.releaseStale(new Date(now.getTime() - STALE_SENDING_MILLIS));
+            for (Long id : outboxRepo.findDueIds(now, PageRequest.of(0, POLL_BATCH))) {
+                offer(id);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Mail outbox poll failed: " + e.getMessage());
+        }
+    }
+
+    private void work() {
+        Transport transport = null;
+        try {
+            while (running) {
+                Long id = queue.poll(idleCloseMillis, TimeUnit.MILLISECONDS);
+                if (id == null) {
+                    transport = close(transport);
+                    continue;
+                }
+                queued.remove(id);
+                transport = deliver(id, transport);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    private Transport deliver(Long id, Transport transport) {
+        MailMessage message;
+        try {
+            if (outboxRepo.claim(id, new Date()) == 0) return transport;
+            message = outboxRepo.findById(id).orElse(null);
+            if (message == null) return transport;
+        } catch (RuntimeException e) {
+            System.out.println("Mail outbox claim failed: " + e.getMessage());
+            return transport;
+        }
+
+        long started = System.nanoTime();
+        try {
+            if (transport == null || !transport.isConnected()) {
+                close(transport);
+                transport = connect();
+            }
+            MimeMessage mime = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mime, true); // true = multipart
+            helper.setTo(message.getRecipient());
+            helper.setSubject(message.getSubject());
+            helper.setText(message.getBody(), true); // true = enable HTML
+            if (mailSender.getUsername() != null) {
+                helper.setFrom(mailSender.getUsername());
+            }
+            mime.saveChanges();
+            transport.sendMessage(mime, mime.getAllRecipients());
+
+            Date now = new Date();
+            outboxRepo.markSent(id, now);
+            recordSend(System.nanoTime() - started, now.getTime() - message.getCreatedAt().getTime());
+        } catch (MessagingException | RuntimeException e) {
+            System.out.println("Mail " + id + " failed on attempt " + message.getAttempts() + ": " + e.getMessage());
+            // The connection may be half broken; open a fresh one for the next message.
+            transport = close(transport);
+            fail(message, e);
+        }
+        return transport;
+    }
+
+    private void fail(MailMessage message, Exception e) {
+        String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        if (error.length() > 1000) error = error.substring(0, 1000);
+        try {
+            if (message.getAttempts() >= maxAttempts) {
+                outboxRepo.markDead(message.getId(), error);
+                deadLettered.increment();
+            } else {
+                outboxRepo.markRetry(message.getId(),
+                        new Date(System.currentTimeMillis() + backoffMillis(message.getAttempts())), error);
+                retried.increment();
+            }
+        } catch (RuntimeException ex) {
+            // Left in SENDING; the poller releases it once it is stale.
+            System.out.println("Mail outbox update failed: " + ex.getMessage());
+        }
+    }
+
+    // 1st retry after the base delay, doubling each time up to the cap.
+    private long backoffMillis(int attempts) {
+        int shift = Math.min(attempts - 1, 20);
+        return Math.min(retryMaxMillis, retryBaseMillis << shift);
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        openTransports.incrementAndGet();
+        return transport;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+                // Already gone.
+            }
+            openTransports.decrementAndGet();
+        }
+        return null;
+    }
+
+    private void recordSend(long sendNanos, long deliveryMillis) {
+        long sendMillis = TimeUnit.NANOSECONDS.toMillis(sendNanos);
+        sent.increment();
+        sendMillisTotal.add(sendMillis);
+        deliveryMillisTotal.add(deliveryMillis);
+        sendMillisMax.accumulateAndGet(sendMillis, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        long sentCount = sent.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("openTransports", openTransports.get());
+        stats.put("queued", queue.size());
+        stats.put("pending", outboxRepo.countByStatus(MailStatus.PENDING));
+        stats.put("dead", outboxRepo.countByStatus(MailStatus.DEAD));
+        stats.put("sent", sentCount);
+        stats.put("retried", retried.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("avgSendMillis", sentCount == 0 ? 0.0 : sendMillisTotal.sum() / (double) sentCount);
+        stats.put("maxSendMillis", sendMillisMax.get());
+        stats.put("avgDeliveryMillis", sentCount == 0 ? 0.0 : deliveryMillisTotal.sum() / (double) sentCount);
+        return stats;
+    }
+}
@@ -0,0 +1,270 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Repositories.EmployeeRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of the reporting hierarchy, kept as a parent array over dense ordinals.
+ * Manager changes update the parent array in place; the derived child ranges and
+ * pre-order (Euler tour) numbering are rebuilt on a background thread once a burst of changes
+ * settles, while queries keep reading the previous snapshot, so subtree, chain-of-command and
+ * span-of-control questions never touch the database or wait for a rebuild. A new employee
+ * invalidates the snapshot at once so it is never missing, and cycle checks read the live parent array.
+ */
+@Service
+public class OrgChartIndex {
+
+    private static final long REBUILD_DELAY_MILLIS = 200;
+
+    private final EmployeeRepo employeeRepo;
+
+    // Guarded by this.
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[1024];
+    private int[] parent = new int[1024];
+    private int size;
+
+    private volatile Snapshot snapshot;
+    private boolean rebuildScheduled;
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "org-chart-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrgChartIndex(EmployeeRepo employeeRepo) {
+        this.employeeRepo = employeeRepo;
+    }
+
+    /**
+     * Immutable, query-ready view of the hierarchy.
+     * Node {@code order[tin[n]]} is n; the subtree of n is {@code order[tin[n] .. tout[n]]}.
+     * Carries its own copy of the id to ordinal map, so queries never mix a snapshot with
+     * ordinals assigned after it was built.
+     */
+    private record Snapshot(Map<Long, Integer> ordinals, long[] ids, int[] parent, int[] childStart, int[] children,
+                            int[] tin, int[] tout, int[] order, int[] depth) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Object[]> rows = employeeRepo.findAllManagerLinks();
+        synchronized (this) {
+            ordinals.clear();
+            size = 0;
+            for (Object[] row : rows) {
+                ordinal((Long) row[0]);
+            }
+            for (Object[] row : rows) {
+                parent[ordinal((Long) row[0])] = row[1] == null ? -1 : ordinal((Long) row[1]);
+            }
+            snapshot = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        Long id = event.employee().getId();
+        if (id == null) return;
+        Long managerId = event.employee().getManager() == null ? null : event.employee().getManager().getId();
+        setManager(id, managerId);
+    }
+
+    public synchronized void setManager(Long employeeId, Long managerId) {
+        int node = ordinal(employeeId);
+        int newParent = managerId == null ? -1 : ordinal(managerId);
+        if (parent[node] != newParent) {
+            parent[node] = newParent;
+            scheduleRebuild();
+        }
+    }
+
+    public boolean contains(Long employeeId) {
+        synchronized (this) {
+            return ordinals.containsKey(employeeId);
+        }
+    }
+
+    /**
+     * True if making managerId the manager of employeeId would create a reporting cycle.
+     */
+    public boolean wouldCreateCycle(Long employeeId, Long managerId) {
+        if (managerId == null) return false;
+        if (managerId.equals(employeeId)) return true;
+        // The snapshot may lag recent changes, so walk up from the candidate through the live parents.
+        synchronized (this) {
+            Integer node = ordinals.get(employeeId);
+            Integer candidate = ordinals.get(managerId);
+            if (node == null || candidate == null) return false;
+            // Bounded by size in case the data already holds a cycle.
+            for (int p = candidate, steps = 0; p >= 0 && steps <= size; p = parent[p], steps++) {
+                if (p == node) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Ids of everyone reporting directly or indirectly to the employee, in pre-order.
+     */
+    public long[] subtree(Long employeeId) {
+        Snapshot s = current();
+        Integer node = s.ordinals.get(employeeId);
+        if (node == null) return null;
+        long[] result = new long[s.tout[node] - s.tin[node]];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = s.ids[s.order[s.tin[node] + 1 + i]];
+        }
+        return result;
+    }
+
+    /**
+     * Ids of the managers above the employee, nearest first.
+     */
+    public long[] chain(Long employeeId) {
+        Snapshot s = current();
+        Integer node = s.ordinals.get(employeeId);
+        if (node == null) return null;
+        long[] result = new long[s.depth[node]];
+        int p = s.parent[node];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = s.ids[p];
+            p = s.parent[p];
+        }
+        return result;
+    }
+
+    public Map<String, Object> span(Long employeeId) {
+        Snapshot s = current();
+        Integer node = s.ordinals.get(employeeId);
+        if (node == null) return null;
+        Map<String, Object> span = new HashMap<>();
+        span.put("employeeId", employeeId);
+        span.put("directReports", s.childStart[node + 1] - s.childStart[node]);
+        span.put("totalReports", s.tout[node] - s.tin[node]);
+        span.put("depth", s.depth[node]);
+        return span;
+    }
+
+    public Integer depth(Long employeeId) {
+        Snapshot s = current();
+        Integer node = s.ordinals.get(employeeId);
+        return node == null ? null : s.depth[node];
+    }
+
+    // Caller holds the lock.
+    private int ordinal(Long employeeId) {
+        Integer existing = ordinals.get(employeeId);
+        if (existing != null) return existing;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            parent = Arrays.copyOf(parent, size * 2);
+        }
+        ids[size] = employeeId;
+        parent[size] = -1;
+        ordinals.put(employeeId, size);
+        // The current snapshot has no node for this employee; rebuild on the next query.
+        snapshot = null;
+        return size++;
+    }
+
+    // Caller holds the lock. Coalesces a burst of manager changes into one rebuild.
+    private void scheduleRebuild() {
+        if (rebuildScheduled) return;
+        rebuildScheduled = true;
+        rebuilder.schedule(() -> {
+            synchronized (this) {
+                rebuildScheduled = false;
+                snapshot = build();
+            }
+        }, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    // Caller holds the lock.
+    private Snapshot build() {
+        int n = size;
+        long[] idsCopy = Arrays.copyOf(ids, n);
+        int[] parentCopy = Arrays.copyOf(parent, n);
+
+        // Child ranges in CSR form: children of v are children[childStart[v] .. childStart[v + 1]).
+        int[] childStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (parentCopy[v] >= 0) childStart[parentCopy[v] + 1]++;
+        }
+        for (int v = 0; v < n; v++) childStart[v + 1] += childStart[v];
+        int[] children = new int[childStart[n]];
+        int[] fill = Arrays.copyOf(childStart, n);
+        for (int v = 0; v < n; v++) {
+            if (parentCopy[v] >= 0) children[fill[parentCopy[v]]++] = v;
+        }
+
+        int[] tin = new int[n];
+        int[] tout = new int[n];
+        int[] order = new int[n];
+        int[] depth = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        int time = 0;
+
+        // Roots first; anything left unvisited afterwards sits on a cycle in the data and is treated as a root.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < n; root++) {
+                if (visited[root] || (pass == 0 && parentCopy[root] >= 0)) continue;
+                if (pass == 1) parentCopy[root] = -1;
+                int top = 0;
+                stack[0] = root;
+                cursor[root] = childStart[root];
+                visited[root] = true;
+                depth[root] = 0;
+                tin[root] = time;
+                order[time++] = root;
+                while (top >= 0) {
+                    int v = stack[top];
+                    if (cursor[v] < childStart[v + 1]) {
+                        int c = children[cursor[v]++];
+                        if (visited[c]) continue;
+                        visited[c] = true;
+                        depth[c] = depth[v] + 1;
+                        tin[c] = time;
+                        order[time++] = c;
+                        cursor[c] = childStart[c];
+                        stack[++top] = c;
+                    } else {
+                        tout[v] = time - 1;
+                        top--;
+                    }
+                }
+            }
+        }
+        return new Snapshot(new HashMap<>(ordinals), idsCopy, parentCopy, childStart, children, tin, tout, order, depth);
+    }
+}
@@ -0,0 +1,233 @@
+package com.ems.backend.Services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory one-time passwords for password recovery.
+ * Only an HMAC of each code is kept, codes expire after a TTL on a {@link TimingWheel},
+ * each code allows a few guesses, and each e-mail can only request a few codes per window.
+ * A correct code is exchanged for a short-lived reset token that {@code /api/reset-password} consumes.
+ * Nothing here touches the database, and state is lost on restart, which only forces users to ask again.
+ */
+@Service
+public class OtpService {
+
+    public static final int OTP_DIGITS = 6;
+
+    public enum VerifyResult { VERIFIED, INVALID, EXPIRED }
+
+    public record Verification(VerifyResult result, String resetToken, int attemptsRemaining) {
+    }
+
+    private static final class Otp {
+        final byte[] hash;
+        final long expiresAt;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        Otp(byte[] hash, long expiresAt) {
+            this.hash = hash;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record ResetGrant(String email, long expiresAt) {
+    }
+
+    private static final class RateWindow {
+        final long startedAt;
+        int issued;
+        long lastIssuedAt;
+
+        RateWindow(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final long otpTtlMillis;
+    private final int maxAttempts;
+    private final int maxPerWindow;
+    private final long windowMillis;
+    private final long resendIntervalMillis;
+    private final long resetTokenTtlMillis;
+
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] hmacKey = new byte[32];
+    private final TimingWheel wheel = new TimingWheel("otp-expiry", 1000, 512);
+
+    private final Map<String, Otp> otps = new ConcurrentHashMap<>();
+    private final Map<String, ResetGrant> resetTokens = new ConcurrentHashMap<>();
+    private final Map<String, RateWindow> rateWindows = new ConcurrentHashMap<>();
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    public OtpService(@Value("${ems.otp.ttl-seconds:300}") long ttlSeconds,
+                      @Value("${ems.otp.max-attempts:5}") int maxAttempts,
+                      @Value("${ems.otp.max-per-window:3}") int maxPerWindow,
+                      @Value("${ems.otp.window-seconds:900}") long windowSeconds,
+                      @Value("${ems.otp.resend-interval-seconds:30}") long resendIntervalSeconds,
+                      @Value("${ems.otp.reset-token-ttl-seconds:600}") long resetTokenTtlSeconds) {
+        this.otpTtlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxAttempts = maxAttempts;
+        this.maxPerWindow = maxPerWindow;
+        this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.resendIntervalMillis = TimeUnit.SECONDS.toMillis(resendIntervalSeconds);
+        this.resetTokenTtlMillis = TimeUnit.SECONDS.toMillis(resetTokenTtlSeconds);
+        random.nextBytes(hmacKey);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    /**
+     * Seconds until the e-mail may request another code, or 0 if it may request one now.
+     */
+    public long retryAfterSeconds(String email) {
+        RateWindow window = rateWindows.get(normalize(email));
+        if (window == null) return 0;
+        long now = System.currentTimeMillis();
+        synchronized (window) {
+            long until = 0;
+            if (window.issued >= maxPerWindow) until = window.startedAt + windowMillis;
+            else if (window.issued > 0) until = window.lastIssuedAt + resendIntervalMillis;
+            return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(until - now + 999));
+        }
+    }
+
+    /**
+     * Generates and stores a new code for the e-mail, replacing any previous one.
+     * Returns null when the e-mail has hit its rate limit.
+     */
+    public String issue(String email) {
+        String key = normalize(email);
+        long now = System.currentTimeMillis();
+        if (!tryAcquire(key, now)) {
+            rateLimited.increment();
+            return null;
+        }
+
+        int bound = (int) Math.pow(10, OTP_DIGITS);
+        String code = String.format("%0" + OTP_DIGITS + "d", random.nextInt(bound));
+        Otp otp = new Otp(hash(key, code), now + otpTtlMillis);
+        otps.put(key, otp);
+        wheel.schedule(otpTtlMillis, () -> otps.remove(key, otp));
+        issued.increment();
+        return code;
+    }
+
+    public Verification verify(String email, String code) {
+        String key = normalize(email);
+        Otp otp = otps.get(key);
+        if (otp == null || otp.expiresAt < System.currentTimeMillis()) {
+            return new Verification(VerifyResult.EXPIRED, null, 0);
+        }
+        int attempt = otp.attempts.incrementAndGet();
+        if (attempt > maxAttempts) {
+            otps.remove(key, otp);
+            return new Verification(VerifyResult.EXPIRED, null, 0);
+        }
+        if (code == null || !MessageDigest.isEqual(otp.hash, hash(key, code.trim()))) {
+            failedAttempts.increment();
+            if (attempt == maxAttempts) otps.remove(key, otp);
+            return new Verification(VerifyResult.INVALID, null, maxAttempts - attempt);
+        }
+        // A code can only be redeemed once.
+        if (!otps.remove(key, otp)) {
+            return new Verification(VerifyResult.EXPIRED, null, 0);
+        }
+        verified.increment();
+        return new Verification(VerifyResult.VERIFIED, issueResetToken(key), 0);
+    }
+
+    /**
+     * Redeems a reset token for the given e-mail. Each token works once.
+     */
+    public boolean consumeResetToken(String email, String token) {
+        if (token == null) return false;
+        ResetGrant grant = resetTokens.remove(token);
+        return grant != null
+                && grant.expiresAt() >= System.currentTimeMillis()
+                && grant.email().equals(normalize(email));
+    }
+
+    private String issueResetToken(String key) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        resetTokens.put(token, new ResetGrant(key, System.currentTimeMillis() + resetTokenTtlMillis));
+        wheel.schedule(resetTokenTtlMillis, () -> resetTokens.remove(token));
+        return token;
+    }
+
+    private boolean tryAcquire(String key, long now) {
+        while (true) {
+            RateWindow window = rateWindows.computeIfAbsent(key, k -> {
+                RateWindow created = new RateWindow(now);
+                wheel.schedule(windowMillis, () -> rateWindows.remove(k, created));
+                return created;
+            });
+            synchronized (window) {
+                if (window.startedAt + windowMillis <= now) {
+                    // The wheel has not dropped it yet; start a fresh window.
+                    rateWindows.remove(key, window);
+                    continue;
+                }
+                if (window.issued >= maxPerWindow || (window.issued > 0 && now - window.lastIssuedAt < resendIntervalMillis)) {
+                    return false;
+                }
+                window.issued++;
+                window.lastIssuedAt = now;
+                return true;
+            }
+        }
+    }
+
+    private byte[] hash(String key, String code) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(hmacKey, "HmacSHA256"));
+            mac.update(key.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(code.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeCodes", otps.size());
+        stats.put("activeResetTokens", resetTokens.size());
+        stats.put("rateWindows", rateWindows.size());
+        stats.put("issued", issued.sum());
+        stats.put("verified", verified.sum());
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("rateLimited", rateLimited.sum());
+        return stats;
+    }
+}
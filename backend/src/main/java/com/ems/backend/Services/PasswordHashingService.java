@@ -0,0 +1,166 @@
+package com.ems.backend.Services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on a dedicated, size-limited pool so password hashing cannot take over
+ * the request threads. When the queue is full, work is rejected immediately with a
+ * {@link RejectedExecutionException} that callers turn into a 429.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    // Hash of a random password at the configured cost, checked against when there is no account.
+    private final String dummyHash;
+    // Tasks that bulk jobs may have in the pool at once, across all callers.
+    private final Semaphore bulkPermits;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${ems.password-hashing.threads:0}") int threads,
+                                  @Value("${ems.password-hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.bulkPermits = new Semaphore(Math.max(1, poolSize / 2));
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * For a login with an unknown username: does the same BCrypt work as a real check and always
+     * completes with false, so response times do not reveal which accounts exist.
+     */
+    public CompletableFuture<Boolean> mismatchAsync(String rawPassword) {
+        return submit(() -> {
+            passwordEncoder.matches(rawPassword == null ? "" : rawPassword, dummyHash);
+            return false;
+        });
+    }
+
+    /**
+     * Blocking variant for service code that needs the hash before it can continue.
+     */
+    public String encode(String rawPassword) {
+        return encodeAsync(rawPassword).join();
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return matchesAsync(rawPassword, encodedPassword).join();
+    }
+
+    /**
+     * Hashes many passwords in parallel for bulk jobs. All bulk callers together hold at most
+     * half the pool's threads in work (running or queued), so interactive logins always find free
+     * workers and queue slots while an import is running. If the queue is full anyway, it waits
+     * and retries instead of failing.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (String raw : rawPasswords) {
+            bulkPermits.acquireUninterruptibly();
+            while (true) {
+                try {
+                    CompletableFuture<String> future = CompletableFuture.supplyAsync(timed(() -> passwordEncoder.encode(raw)), executor);
+                    future.whenComplete((hash, error) -> bulkPermits.release());
+                    futures.add(future);
+                    break;
+                } catch (RejectedExecutionException e) {
+                    LockSupport.parkNanos(1_000_000);
+                }
+            }
+        }
+        List<String> hashes = new ArrayList<>(futures.size());
+        for (CompletableFuture<String> future : futures) {
+            hashes.add(future.join());
+        }
+        return hashes;
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            try {
+                return task.get();
+            } finally {
+                record(System.nanoTime() - submittedAt);
+            }
+        };
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(timed(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void record(long nanos) {
+        completed.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        long done = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("bulkPermitsAvailable", bulkPermits.availablePermits());
+        stats.put("avgLatencyMs", done == 0 ? 0.0 : totalNanos.sum() / (double) done / 1_000_000);
+        stats.put("maxLatencyMs", maxNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,237 @@
+package com.ems.backend.Services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side salary calculation in fixed point: every amount is a long in minor units (paise)
+ * and every rate is in basis points, so results are exact and identical on every run.
+ * A {@link Workforce} holds one primitive array per component (structure of arrays); a pass is
+ * a single loop over those arrays with no per-employee objects, split across the common
+ * fork-join pool once the workforce is large enough.
+ *
+ * Rules, per month: basic defaults to a share of CTC and HRA to a share of basic; employee and
+ * employer PF are each a percentage of basic; the special allowance balances CTC after basic,
+ * HRA and employer PF; professional tax comes from slabs on gross unless a fixed amount is set.
+ */
+@Service
+public class PayrollEngine {
+
+    // Ranges at or below this size are computed in one loop by a single fork-join task.
+    private static final int LEAF_SIZE = 4096;
+    private static final long BASIS_POINTS = 10_000;
+
+    private final long pfRate;
+    private final long basicShare;
+    private final long hraShare;
+    // Ascending gross floors with the tax due from each floor up.
+    private final long[] taxSlabFloors;
+    private final long[] taxSlabAmounts;
+    private final int parallelThreshold;
+
+    private final LongAdder passes = new LongAdder();
+    private final LongAdder employeesComputed = new LongAdder();
+    private final LongAdder computeNanosTotal = new LongAdder();
+    private final AtomicLong lastNanosPerEmployee = new AtomicLong();
+
+    public PayrollEngine(@Value("${ems.payroll.pf-rate-bp:1200}") long pfRate,
+                         @Value("${ems.payroll.basic-share-bp:4000}") long basicShare,
+                         @Value("${ems.payroll.hra-share-bp:4000}") long hraShare,
+                         @Value("${ems.payroll.professional-tax-slabs:0:0}") String taxSlabs,
+                         @Value("${ems.payroll.engine.parallel-threshold:16384}") int parallelThreshold) {
+        this.pfRate = pfRate;
+        this.basicShare = basicShare;
+        this.hraShare = hraShare;
+        this.parallelThreshold = Math.max(LEAF_SIZE, parallelThreshold);
+
+        // "floor:tax,floor:tax" in rupees, e.g. "0:0,15000:150,21000:200".
+        String[] slabs = taxSlabs.split(",");
+        long[][] parsed = new long[slabs.length][];
+        for (int i = 0; i < slabs.length; i++) {
+            String[] parts = slabs[i].trim().split(":");
+            parsed[i] = new long[] {toMinor(new BigDecimal(parts[0].trim())), toMinor(new BigDecimal(parts[1].trim()))};
+        }
+        Arrays.sort(parsed, (a, b) -> Long.compare(a[0], b[0]));
+        this.taxSlabFloors = new long[parsed.length];
+        this.taxSlabAmounts = new long[parsed.length];
+        for (int i = 0; i < parsed.length; i++) {
+            taxSlabFloors[i] = parsed[i][0];
+            taxSlabAmounts[i] = parsed[i][1];
+        }
+    }
+
+    /**
+     * Inputs and results for a set of employees, one array per component, all in minor units.
+     * basic, hra and professionalTax are inputs where set and -1 where the rules should decide;
+     * after a pass they hold the values used.
+     */
+    public static final class Workforce {
+        private int size;
+        public long[] employeeIds;
+        public long[] monthlyCtc;
+        public long[] basic;
+        public long[] hra;
+        public long[] professionalTax;
+        public long[] employeePf;
+        public long[] employerPf;
+        public long[] specialAllowance;
+        public long[] grossEarnings;
+        public long[] netSalary;
+
+        public Workforce(int capacity) {
+            resize(Math.max(capacity, 16));
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Appends an employee; pass -1 for basic, hra or professionalTax to have them calculated.
+         */
+        public int add(long employeeId, long monthlyCtc, long basic, long hra, long professionalTax) {
+            if (size == employeeIds.length) resize(size * 2);
+            int i = size++;
+            this.employeeIds[i] = employeeId;
+            this.monthlyCtc[i] = monthlyCtc;
+            this.basic[i] = basic;
+            this.hra[i] = hra;
+            this.professionalTax[i] = professionalTax;
+            return i;
+        }
+
+        private void resize(int capacity) {
+            employeeIds = employeeIds == null ? new long[capacity] : Arrays.copyOf(employeeIds, capacity);
+            monthlyCtc = monthlyCtc == null ? new long[capacity] : Arrays.copyOf(monthlyCtc, capacity);
+            basic = basic == null ? new long[capacity] : Arrays.copyOf(basic, capacity);
+            hra = hra == null ? new long[capacity] : Arrays.copyOf(hra, capacity);
+            professionalTax = professionalTax == null ? new long[capacity] : Arrays.copyOf(professionalTax, capacity);
+            employeePf = new long[capacity];
+            employerPf = new long[capacity];
+            specialAllowance = new long[capacity];
+            grossEarnings = new long[capacity];
+            netSalary = new long[capacity];
+        }
+    }
+
+    /**
+     * Runs the rules over the whole workforce, in parallel for large ones.
+     */
+    public void compute(Workforce workforce) {
+        int n = workforce.size();
+        long started = System.nanoTime();
+        if (n >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new Split(workforce, 0, n));
+        } else {
+            computeRange(workforce, 0, n);
+        }
+        long nanos = System.nanoTime() - started;
+        passes.increment();
+        employeesComputed.add(n);
+        computeNanosTotal.add(nanos);
+        if (n > 0) lastNanosPerEmployee.set(nanos / n);
+    }
+
+    private final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Workforce workforce;
+        private final int from;
+        private final int to;
+
+        Split(Workforce workforce, int from, int to) {
+            this.workforce = workforce;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                computeRange(workforce, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Split(workforce, from, mid), new Split(workforce, mid, to));
+        }
+    }
+
+    private void computeRange(Workforce w, int from, int to) {
+        long[] ctc = w.monthlyCtc;
+        long[] basic = w.basic;
+        long[] hra = w.hra;
+        long[] tax = w.professionalTax;
+        long[] pf = w.employeePf;
+        long[] employerPf = w.employerPf;
+        long[] special = w.specialAllowance;
+        long[] gross = w.grossEarnings;
+        long[] net = w.netSalary;
+        for (int i = from; i < to; i++) {
+            long b = basic[i] >= 0 ? basic[i] : share(ctc[i], basicShare);
+            long h = hra[i] >= 0 ? hra[i] : share(b, hraShare);
+            long p = share(b, pfRate);
+            // Negative when basic, HRA and employer PF exceed CTC; gross then ignores it.
+            long s = ctc[i] - b - h - p;
+            long g = b + h + Math.max(s, 0);
+            long t = tax[i] >= 0 ? tax[i] : professionalTax(g);
+            basic[i] = b;
+            hra[i] = h;
+            pf[i] = p;
+            employerPf[i] = p;
+            special[i] = s;
+            gross[i] = g;
+            tax[i] = t;
+            net[i] = g - p - t;
+        }
+    }
+
+    private long professionalTax(long gross) {
+        for (int k = taxSlabFloors.length - 1; k >= 0; k--) {
+            if (gross >= taxSlabFloors[k]) return taxSlabAmounts[k];
+        }
+        return 0;
+    }
+
+    // amount * basisPoints / 10000, rounded half up.
+    private static long share(long amount, long basisPoints) {
+        return (amount * basisPoints + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static long toMinor(Double amount) {
+        return amount == null ? -1 : Math.round(amount * 100);
+    }
+
+    // Annual CTC to the monthly amount in minor units.
+    public static long monthlyMinor(BigDecimal annual) {
+        return annual.movePointRight(2).divide(BigDecimal.valueOf(12), 0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toMajor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    public Map<String, Object> stats() {
+        long computed = employeesComputed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("passes", passes.sum());
+        stats.put("employeesComputed", computed);
+        stats.put("avgNanosPerEmployee", computed == 0 ? 0.0 : computeNanosTotal.sum() / (double) computed);
+        stats.put("lastNanosPerEmployee", lastNanosPerEmployee.get());
+        stats.put("parallelThreshold", parallelThreshold);
+        return stats;
+    }
+}
@@ -0,0 +1,313 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.PayrollRun;
+import com.ems.backend.Models.PayrollRunChunk;
+import com.ems.backend.Models.PayrollRunStatus;
+import com.ems.backend.Repositories.PaySlipRepo;
+import com.ems.backend.Repositories.PayrollRunChunkRepo;
+import com.ems.backend.Repositories.PayrollRunRepo;
+import com.ems.backend.Repositories.SalaryStructureVersionRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates a month's payslips on the server.
+ * Employees are eligible when active with a salary structure version in effect on the last day
+ * of the month, and each payslip snapshots that version. Starting a run reads the eligible
+ * employee ids once and cuts them into chunks of contiguous ids, stored as {@link PayrollRunChunk}
+ * rows. Workers process chunks in parallel; each chunk is one transaction that issues its
+ * payslips with a single INSERT ... SELECT, marks the chunk done and advances the run's counters,
+ * so a run interrupted by a crash or restart continues from the chunks that are still pending
+ * and never writes a chunk twice. Payslips that already exist for an (employee, year, month)
+ * are left as issued, so running a month again cannot duplicate or alter them either.
+ */
+@Service
+public class PayrollRunService {
+
+    private final PayrollRunRepo runRepo;
+    private final PayrollRunChunkRepo chunkRepo;
+    private final SalaryStructureVersionRepo versionRepo;
+    private final PaySlipRepo paySlipRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int workers;
+    private final int chunkSize;
+
+    private final ExecutorService workerPool;
+    // Chunks of each run still queued or executing in this instance.
+    private final Map<Long, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder chunksProcessed = new LongAdder();
+    private final LongAdder chunkFailures = new LongAdder();
+    private final LongAdder payslipsWritten = new LongAdder();
+    private final LongAdder chunkMillisTotal = new LongAdder();
+    private final AtomicLong chunkMillisMax = new AtomicLong();
+
+    public PayrollRunService(PayrollRunRepo runRepo,
+                             PayrollRunChunkRepo chunkRepo,
+                             SalaryStructureVersionRepo versionRepo,
+                             PaySlipRepo paySlipRepo,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${ems.payroll.workers:4}") int workers,
+                             @Value("${ems.payroll.chunk-size:1000}") int chunkSize) {
+        this.runRepo = runRepo;
+        this.chunkRepo = chunkRepo;
+        this.versionRepo = versionRepo;
+        this.paySlipRepo = paySlipRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+        this.chunkSize = Math.max(1, chunkSize);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "payroll-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a run for the month. With an idempotency key, repeating the request returns the
+     * run the first request created instead of starting another one.
+     */
+    public ResponseEntity<?> startRun(Integer month, Integer year, String idempotencyKey) {
+        try{
+            if (month == null || month < 1 || month > 12 || year == null || year < 2000 || year > 9999) {
+                return ResponseEntity.badRequest().body("A month (1-12) and a four digit year are required");
+            }
+            if (idempotencyKey != null && idempotencyKey.length() > 100) {
+                return ResponseEntity.badRequest().body("Idempotency-Key must be at most 100 characters");
+            }
+            if (idempotencyKey != null) {
+                Optional<PayrollRun> existing = runRepo.findByIdempotencyKey(idempotencyKey);
+                if (existing.isPresent()) return replay(existing.get(), month, year);
+            }
+            Optional<PayrollRun> running = runRepo.findFirstByMonthAndYearAndStatus(month, year, PayrollRunStatus.RUNNING);
+            if (running.isPresent()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(running.get());
+            }
+
+            List<Long> employeeIds = versionRepo.findPayrollEmployeeIds(YearMonth.of(year, month).atEndOfMonth());
+            PayrollRun run;
+            try {
+                run = transaction.execute(status -> plan(month, year, idempotencyKey, employeeIds));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent request with the same key won the insert.
+                PayrollRun existing = idempotencyKey == null ? null : runRepo.findByIdempotencyKey(idempotencyKey).orElse(null);
+                if (existing == null) throw e;
+                return replay(existing, month, year);
+            }
+            if (run.getTotalChunks() == 0) {
+                runRepo.transition(run.getId(), PayrollRunStatus.RUNNING, PayrollRunStatus.COMPLETED, new Date(), null);
+                return ResponseEntity.accepted().body(runRepo.findById(run.getId()).orElse(run));
+            }
+            submit(run.getId());
+            return ResponseEntity.accepted().body(run);
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    private ResponseEntity<?> replay(PayrollRun run, int month, int year) {
+        if (run.getMonth() != month || run.getYear() != year) {
+            return ResponseEntity.unprocessableEntity().body("Idempotency-Key was already used for payroll run " + run.getId());
+        }
+        return ResponseEntity.ok().body(run);
+    }
+
+    public ResponseEntity<?> getRun(Long id) {
+        try{
+            Optional<PayrollRun> run = runRepo.findById(id);
+            if (run.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Payroll run not found with ID: " + id);
+            }
+            return ResponseEntity.ok().body(run.get());
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    public ResponseEntity<?> getRecentRuns() {
+        try{
+            return ResponseEntity.ok().body(runRepo.findTop20ByOrderByIdDesc());
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    /**
+     * Restarts the pending chunks of a failed run.
+     */
+    public ResponseEntity<?> resumeRun(Long id) {
+        try{
+            PayrollRun run = runRepo.findById(id).orElse(null);
+            if (run == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Payroll run not found with ID: " + id);
+            }
+            if (run.getStatus() != PayrollRunStatus.FAILED
+                    || runRepo.transition(id, PayrollRunStatus.FAILED, PayrollRunStatus.RUNNING, null, null) == 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(runRepo.findById(id).orElse(run));
+            }
+            submit(id);
+            return ResponseEntity.accepted().body(runRepo.findById(id).orElse(run));
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    /**
+     * Picks up runs that were still going when the application last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        try {
+            for (PayrollRun run : runRepo.findByStatus(PayrollRunStatus.RUNNING)) {
+                System.out.println("Resuming payroll run " + run.getId() + " at chunk "
+                        + run.getCompletedChunks() + "/" + run.getTotalChunks());
+                submit(run.getId());
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Payroll resume failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    // Runs inside the transaction that creates the run, so a run never exists without its chunks.
+    private PayrollRun plan(int month, int year, String idempotencyKey, List<Long> employeeIds) {
+        PayrollRun run = new PayrollRun();
+        run.setMonth(month);
+        run.setYear(year);
+        run.setIdempotencyKey(idempotencyKey);
+        run.setStatus(PayrollRunStatus.RUNNING);
+        run.setChunkSize(chunkSize);
+        run.setTotalEmployees(employeeIds.size());
+        run.setTotalChunks((employeeIds.size() + chunkSize - 1) / chunkSize);
+        runRepo.saveAndFlush(run);
+
+        List<long[]> bounds = new ArrayList<>(run.getTotalChunks());
+        for (int from = 0; from < employeeIds.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, employeeIds.size()) - 1;
+            bounds.add(new long[] {employeeIds.get(from), employeeIds.get(to), to - from + 1});
+        }
+        Long runId = run.getId();
+        AtomicInteger chunkNo = new AtomicInteger();
+        jdbcTemplate.batchUpdate(
+                "insert into payroll_run_chunks (run_id, chunk_no, first_employee_id, last_employee_id, employees, done) " +
+                        "values (?, ?, ?, ?, ?, false)",
+                bounds, 500, (ps, range) -> {
+                    ps.setLong(1, runId);
+                    ps.setInt(2, chunkNo.getAndIncrement());
+                    ps.setLong(3, range[0]);
+                    ps.setLong(4, range[1]);
+                    ps.setInt(5, (int) range[2]);
+                });
+        return run;
+    }
+
+    private void submit(Long runId) {
+        List<Long> pending = chunkRepo.findPendingIds(runId);
+        AtomicInteger remaining = new AtomicInteger(pending.size());
+        if (inFlight.putIfAbsent(runId, remaining) != null) return;
+        if (pending.isEmpty()) {
+            finish(runId);
+            return;
+        }
+        for (Long chunkId : pending) {
+            workerPool.execute(() -> {
+                try {
+                    process(runId, chunkId);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) finish(runId);
+                }
+            });
+        }
+    }
+
+    private void process(Long runId, Long chunkId) {
+        long started = System.nanoTime();
+        try {
+            Integer written = transaction.execute(status -> {
+                if (chunkRepo.complete(chunkId, new Date()) == 0) return null;
+                PayrollRunChunk chunk = chunkRepo.findById(chunkId).orElseThrow();
+                PayrollRun run = runRepo.findById(runId).orElseThrow();
+                int issued = paySlipRepo.generateForRange(chunk.getFirstEmployeeId(), chunk.getLastEmployeeId(),
+                        run.getMonth(), run.getYear(), YearMonth.of(run.getYear(), run.getMonth()).atEndOfMonth());
+                runRepo.addProgress(runId, chunk.getEmployees());
+                return issued;
+            });
+            if (written == null) return;
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            chunksProcessed.increment();
+            payslipsWritten.add(written);
+            chunkMillisTotal.add(millis);
+            chunkMillisMax.accumulateAndGet(millis, Math::max);
+        } catch (RuntimeException e) {
+            // The chunk stays pending and is retried when the run is resumed.
+            chunkFailures.increment();
+            System.out.println("Payroll run " + runId + " chunk " + chunkId + " failed: " + e.getMessage());
+        }
+    }
+
+    private void finish(Long runId) {
+        inFlight.remove(runId);
+        try {
+            long pending = chunkRepo.countByRunIdAndDoneFalse(runId);
+            if (pending == 0) {
+                runRepo.transition(runId, PayrollRunStatus.RUNNING, PayrollRunStatus.COMPLETED, new Date(), null);
+            } else {
+                runRepo.transition(runId, PayrollRunStatus.RUNNING, PayrollRunStatus.FAILED, new Date(),
+                        pending + " chunk(s) failed; resume the run to retry them");
+            }
+        } catch (RuntimeException e) {
+            // Left RUNNING; the next start picks it up again.
+            System.out.println("Payroll run " + runId + " could not be finished: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long chunks = chunksProcessed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("chunkSize", chunkSize);
+        stats.put("activeRuns", inFlight.size());
+        stats.put("chunksProcessed", chunks);
+        stats.put("chunkFailures", chunkFailures.sum());
+        stats.put("payslipsWritten", payslipsWritten.sum());
+        stats.put("avgChunkMillis", chunks == 0 ? 0.0 : chunkMillisTotal.sum() / (double) chunks);
+        stats.put("maxChunkMillis", chunkMillisMax.get());
+        return stats;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ems.backend.Services;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Brings payslips written before the (user_id, year, month) key up to date on startup:
+ * month names become numbers 1-12, duplicates of the same employee and month are dropped
+ * (the first one issued is kept) and the unique index is added. Hibernate's schema update
+ * neither changes column types nor can add the index while duplicates exist.
+ * Does nothing once the column is numeric and the index is in place.
+ */
+@Component
+public class PayslipPeriodMigration implements ApplicationRunner {
+
+    private static final String UNIQUE_INDEX = "uk_payslip_user_period";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PayslipPeriodMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> types = jdbcTemplate.queryForList(
+                "select data_type from information_schema.columns " +
+                        "where table_schema = database() and table_name = 'payslips' and column_name = 'month'",
+                String.class);
+        if (types.isEmpty()) return;
+
+        boolean textual = types.get(0).toLowerCase().contains("char");
+        if (textual) {
+            // Names the browser wrote in another locale fall back to the month the payslip was generated in.
+            int converted = jdbcTemplate.update(
+                    "update payslips set month = case " +
+                            "when month regexp '^[0-9]+$' then month " +
+                            "when field(month, 'January', 'February', 'March', 'April', 'May', 'June', 'July', " +
+                            "'August', 'September', 'October', 'November', 'December') > 0 " +
+                            "then field(month, 'January', 'February', 'March', 'April', 'May', 'June', 'July', " +
+                            "'August', 'September', 'October', 'November', 'December') " +
+                            "else month(coalesce(generated_on, now())) end");
+            System.out.println("Converted " + converted + " payslip month(s) to numbers");
+        }
+
+        Integer indexed = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.statistics " +
+                        "where table_schema = database() and table_name = 'payslips' and index_name = ?",
+                Integer.class, UNIQUE_INDEX);
+        if (indexed == null || indexed == 0) {
+            int removed = jdbcTemplate.update(
+                    "delete p from payslips p join payslips q on p.user_id = q.user_id and p.year = q.year " +
+                            "and p.month = q.month and p.payslip_id > q.payslip_id");
+            if (removed > 0) System.out.println("Removed " + removed + " duplicate payslip(s)");
+        }
+        if (textual) {
+            jdbcTemplate.execute("alter table payslips modify month int not null");
+        }
+        if (indexed == null || indexed == 0) {
+            jdbcTemplate.execute("alter table payslips add constraint " + UNIQUE_INDEX + " unique (user_id, year, month)");
+        }
+    }
+}
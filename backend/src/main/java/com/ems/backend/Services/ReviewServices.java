@@ -8,10 +8,13 @@ import com.ems.backend.Repositories.EmployeeRepo;
 import com.ems.backend.Repositories.ReviewRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -65,8 +68,17 @@ public class ReviewServices {
 
     public ResponseEntity<?> upDateReview(PerformanceReview data) {
         try {
+            if (data.getVersion() == null) {
+                return ResponseEntity.badRequest().body("version is required");
+            }
             PerformanceReview ans = reviewRepo.findById(data.getReviewId()).orElse(null);
-            assert ans != null;
+            if (ans == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Review not found");
+            }
+            // A client that read an older version, or an already acknowledged review, must not be overwritten.
+            if (!data.getVersion().equals(ans.getVersion()) || ans.getStatus() == ReviewStatus.ACKNOWLEDGED) {
+                return conflict(ans);
+            }
             ans.setReviewerId(data.getReviewerId());
             ans.setComments(data.getComments());
             ans.setCommunication(data.getCommunication());
@@ -77,11 +89,17 @@ public class ReviewServices {
             ans.setTechnicalSkills(data.getTechnicalSkills());
             ans.setTeamwork(data.getTeamwork());
             ans.setPunctuality(data.getPunctuality());
-            ans.setStatus(data.getStatus());
+            // Submitting the form completes the review; acknowledging is the employee's own transition.
+            ans.setStatus(ReviewStatus.COMPLETED);
             ans.setOverallRating(data.getOverallRating());
-            reviewRepo.save(data);
+            reviewRepo.save(ans);
             return ResponseEntity.ok().body("Data saved successfully");
         }
+        catch (ObjectOptimisticLockingFailureException e) {
+            return reviewRepo.findById(data.getReviewId())
+                    .<ResponseEntity<?>>map(this::conflict)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Review not found"));
+        }
         catch (Exception e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server Error");
@@ -101,13 +119,25 @@ public class ReviewServices {
 
     public ResponseEntity<?> acknowledgeReview(PerformanceReview data) {
         try {
-            data.setStatus(ReviewStatus.ACKNOWLEDGED);
-            reviewRepo.save(data);
-            return ResponseEntity.ok().body(data);
+            // Only a completed review can be acknowledged, and only once.
+            int updated = reviewRepo.transition(data.getReviewId(), ReviewStatus.COMPLETED, ReviewStatus.ACKNOWLEDGED);
+            PerformanceReview current = reviewRepo.findById(data.getReviewId()).orElse(null);
+            if (current == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Review not found");
+            }
+            if (updated == 0) return conflict(current);
+            return ResponseEntity.ok().body(current);
 
         } catch (Exception e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server Error");
         }
     }
+
+    private ResponseEntity<?> conflict(PerformanceReview current) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", "Review was changed by someone else or is already " + current.getStatus());
+        body.put("current", current);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
 }
@@ -0,0 +1,59 @@
+package com.ems.backend.Services;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries data from before salary structures were versioned over on startup: every Salaries row
+ * without a version becomes the employee's first version, in effect from the date of joining, and
+ * payslips that still point at a Salaries row get their snapshot filled from it and the employee.
+ * Both steps only touch rows that have not been migrated, so later starts do nothing.
+ */
+@Component
+public class SalaryHistoryMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalaryHistoryMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int versions = jdbcTemplate.update(
+                "insert into salary_structure_versions (employee_id, effective_from, monthly_ctc, basic, hra, " +
+                        "special_allowance, gross_earnings, provident_fund, employer_provident_fund, professional_tax, " +
+                        "net_salary, created_at) " +
+                        "select s.employee_id, coalesce(e.date_of_joining, '2000-01-01'), round(coalesce(e.salary, 0) * 100 / 12), " +
+                        "round(coalesce(s.basic, 0) * 100), round(coalesce(s.hra, 0) * 100), " +
+                        "round(coalesce(s.special_allowance, 0) * 100), round(coalesce(s.gross_earnings, 0) * 100), " +
+                        "round(coalesce(s.provident_fund, 0) * 100), round(coalesce(s.provident_fund, 0) * 100), " +
+                        "round(coalesce(s.professional_tax, 0) * 100), round(coalesce(s.net_salary, 0) * 100), now() " +
+                        "from salaries s join employee e on e.id = s.employee_id " +
+                        // One version per employee even if older data left several Salaries rows.
+                        "where s.id = (select max(s2.id) from salaries s2 where s2.employee_id = s.employee_id) " +
+                        "and not exists (select 1 from salary_structure_versions v where v.employee_id = s.employee_id)");
+        if (versions > 0) System.out.println("Created " + versions + " initial salary structure version(s)");
+
+        try {
+            int payslips = jdbcTemplate.update(
+                    "update payslips p join salaries s on s.id = p.salary_id join employee e on e.id = p.user_id set " +
+                            "p.employee_name = trim(concat(coalesce(e.first_name, ''), ' ', coalesce(e.last_name, ''))), " +
+                            "p.role = e.role, p.basic = round(coalesce(s.basic, 0) * 100), " +
+                            "p.hra = round(coalesce(s.hra, 0) * 100), " +
+                            "p.special_allowance = round(coalesce(s.special_allowance, 0) * 100), " +
+                            "p.gross_earnings = round(coalesce(s.gross_earnings, 0) * 100), " +
+                            "p.provident_fund = round(coalesce(s.provident_fund, 0) * 100), " +
+                            "p.employer_provident_fund = round(coalesce(s.provident_fund, 0) * 100), " +
+                            "p.professional_tax = round(coalesce(s.professional_tax, 0) * 100), " +
+                            "p.net_salary = round(coalesce(s.net_salary, 0) * 100) " +
+                            "where p.net_salary is null");
+            if (payslips > 0) System.out.println("Snapshotted " + payslips + " existing payslip(s)");
+        } catch (DataAccessException e) {
+            // No salary_id column: the database was created after payslips carried their own snapshot.
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.SalaryStructureVersion;
+import com.ems.backend.Repositories.SalaryStructureVersionRepo;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps the effective-dated history of salary structures. A new structure starts a new version
+ * and closes the previous one the day before; versions are never edited afterwards, except that
+ * submitting again for the same start date replaces that version's figures.
+ */
+@Service
+public class SalaryHistoryService {
+
+    private final SalaryStructureVersionRepo versionRepo;
+
+    public SalaryHistoryService(SalaryStructureVersionRepo versionRepo) {
+        this.versionRepo = versionRepo;
+    }
+
+    /**
+     * Records the computed structure (row 0 of the workforce) as in effect from the given date.
+     * Returns null when the employee already has a version starting after that date. Joins the
+     * caller's transaction, so the version commits with whatever else the caller writes.
+     */
+    @Transactional
+    public SalaryStructureVersion record(Long employeeId, LocalDate effectiveFrom, PayrollEngine.Workforce computed) {
+        // Serializes submits for the employee, so two of them cannot both leave an open version.
+        versionRepo.lockEmployee(employeeId);
+        SalaryStructureVersion latest = versionRepo.findTopByEmployeeIdOrderByEffectiveFromDesc(employeeId).orElse(null);
+        if (latest != null && latest.getEffectiveFrom().isAfter(effectiveFrom)) {
+            return null;
+        }
+        SalaryStructureVersion version;
+        if (latest != null && latest.getEffectiveFrom().equals(effectiveFrom)) {
+            version = latest;
+        } else {
+            if (latest != null) {
+                latest.setEffectiveTo(effectiveFrom.minusDays(1));
+                versionRepo.save(latest);
+            }
+            version = new SalaryStructureVersion();
+            version.setEmployeeId(employeeId);
+            version.setEffectiveFrom(effectiveFrom);
+        }
+        version.setMonthlyCtc(computed.monthlyCtc[0]);
+        version.setBasic(computed.basic[0]);
+        version.setHra(computed.hra[0]);
+        version.setSpecialAllowance(computed.specialAllowance[0]);
+        version.setGrossEarnings(computed.grossEarnings[0]);
+        version.setProvidentFund(computed.employeePf[0]);
+        version.setEmployerProvidentFund(computed.employerPf[0]);
+        version.setProfessionalTax(computed.professionalTax[0]);
+        version.setNetSalary(computed.netSalary[0]);
+        return versionRepo.save(version);
+    }
+
+    public List<SalaryStructureVersion> history(Long employeeId) {
+        return versionRepo.findByEmployeeIdOrderByEffectiveFromDesc(employeeId);
+    }
+}
@@ -1,7 +1,11 @@
 package com.ems.backend.Services;
 
 
+import com.ems.backend.Config.TokenPrincipal;
 import com.ems.backend.DTO.EmployeeDTO;
+import com.ems.backend.DTO.EmployeeIdentity;
+import com.ems.backend.DTO.KeysetPage;
+import com.ems.backend.DTO.PayslipDTO;
 import com.ems.backend.Models.Employee;
 import com.ems.backend.Models.Payslip;
 import com.ems.backend.Models.Salaries;
@@ -9,10 +13,24 @@ import com.ems.backend.Repositories.EmployeeRepo;
 import com.ems.backend.Repositories.PaySlipRepo;
 import com.ems.backend.Repositories.SalaryRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class SalaryServices {
@@ -23,28 +41,151 @@ public class SalaryServices {
     EmployeeRepo employeeRepo;
     @Autowired
     PaySlipRepo paySlipRepo;
+    @Autowired
+    EmployeeIdentityCache identityCache;
+    @Autowired
+    PayrollEngine payrollEngine;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    SalaryHistoryService salaryHistoryService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 120;
 
-    public ResponseEntity<?> submitStructure(Salaries data) {
+    /**
+     * Computes the structure and records it as a new version in effect from effectiveFrom (today
+     * when null). The employee's Salaries row keeps the latest structure for the setup screen;
+     * payroll reads the version in effect for the month.
+     */
+    public ResponseEntity<?> submitStructure(Salaries data, LocalDate effectiveFrom) {
         try{
-            Salaries salary = salaryRepo.findByEmployee(data.getEmployee());
+            if (data.getEmployee() == null || data.getEmployee().getSalary() == null) {
+                return ResponseEntity.badRequest().body("An employee with a CTC is required");
+            }
+            if (isNegative(data.getBasic()) || isNegative(data.getHra()) || isNegative(data.getProfessionalTax())) {
+                return ResponseEntity.badRequest().body("Salary components cannot be negative");
+            }
+            // Only basic, HRA and a fixed professional tax are taken from the client; the rest is derived here.
+            PayrollEngine.Workforce one = new PayrollEngine.Workforce(1);
+            one.add(data.getEmployee().getId(), PayrollEngine.monthlyMinor(data.getEmployee().getSalary()),
+                    PayrollEngine.toMinor(data.getBasic()), PayrollEngine.toMinor(data.getHra()),
+                    PayrollEngine.toMinor(data.getProfessionalTax()));
+            payrollEngine.compute(one);
+            if (one.specialAllowance[0] < 0) {
+                return ResponseEntity.badRequest().body("Basic + HRA + Employer PF exceeds the monthly CTC");
+            }
+            data.setBasic(PayrollEngine.toMajor(one.basic[0]).doubleValue());
+            data.setHra(PayrollEngine.toMajor(one.hra[0]).doubleValue());
+            data.setSpecialAllowance(PayrollEngine.toMajor(one.specialAllowance[0]).doubleValue());
+            data.setGrossEarnings(PayrollEngine.toMajor(one.grossEarnings[0]).doubleValue());
+            data.setProvidentFund(PayrollEngine.toMajor(one.employeePf[0]).doubleValue());
+            data.setProfessionalTax(PayrollEngine.toMajor(one.professionalTax[0]).doubleValue());
+            data.setNetSalary(PayrollEngine.toMajor(one.netSalary[0]).doubleValue());
+
+            LocalDate from = effectiveFrom == null ? LocalDate.now() : effectiveFrom;
             Employee emp = data.getEmployee();
-            emp.setSalaryStruct(salary);
-            emp.setPayRoll(true);
-            employeeRepo.save(emp);
-            if(salary != null)
-            {
-                salary.setNetSalary(data.getNetSalary());
-                salary.setHra(data.getHra());
-                salary.setBasic(data.getBasic());
-                salary.setProfessionalTax(data.getProfessionalTax());
-                salary.setProvidentFund(data.getProvidentFund());
-                salary.setSpecialAllowance(data.getSpecialAllowance());
-                salary.setGrossEarnings(data.getGrossEarnings());
-                salaryRepo.save(salary);
+            // The version, the payroll flag and the Salaries row commit together or not at all.
+            ResponseEntity<?> response = transactionTemplate.execute(status -> {
+                if (salaryHistoryService.record(emp.getId(), from, one) == null) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body("A salary structure starting after " + from + " already exists for this employee");
+                }
+
+                // Write only the payroll flag: saving the whole entity would also write back a tokenVersion
+                // read before this request and could revive tokens revoked meanwhile.
+                Salaries salary = salaryRepo.findByEmployee(emp);
+                employeeRepo.updateFields(emp.getId(), Map.of("payRoll", true), false);
+                if(salary != null)
+                {
+                    salary.setNetSalary(data.getNetSalary());
+                    salary.setHra(data.getHra());
+                    salary.setBasic(data.getBasic());
+                    salary.setProfessionalTax(data.getProfessionalTax());
+                    salary.setProvidentFund(data.getProvidentFund());
+                    salary.setSpecialAllowance(data.getSpecialAllowance());
+                    salary.setGrossEarnings(data.getGrossEarnings());
+                    salaryRepo.save(salary);
+
+                }
+                else salaryRepo.save(data);
+                return ResponseEntity.ok().body("Structure saved successfully");
+            });
+            if (response.getStatusCode().is2xxSuccessful()) {
+                emp.setPayRoll(true);
+                eventPublisher.publishEvent(new EmployeeChangedEvent(emp));
+            }
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The salary structure was changed concurrently, please retry");
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
 
+    private static boolean isNegative(Double amount) {
+        return amount != null && amount < 0;
+    }
+
+    /**
+     * Computes this month's payroll for every active employee with a salary structure version in
+     * effect at the end of the month, in one engine pass, and returns the register totals. Rows are
+     * read straight into the engine's arrays, so no entity or per-employee object is created.
+     */
+    public ResponseEntity<?> previewPayroll() {
+        try{
+            PayrollEngine.Workforce workforce = new PayrollEngine.Workforce(1024);
+            Date asOf = Date.valueOf(YearMonth.now().atEndOfMonth());
+            jdbcTemplate.query(
+                    "select v.employee_id, v.monthly_ctc, v.basic, v.hra, v.professional_tax " +
+                            "from salary_structure_versions v join employee e on e.id = v.employee_id " +
+                            "where e.status = 'Active' and v.effective_from <= ? " +
+                            "and (v.effective_to is null or v.effective_to >= ?) order by v.employee_id",
+                    rs -> {
+                        workforce.add(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5));
+                    }, asOf, asOf);
+
+            long started = System.nanoTime();
+            payrollEngine.compute(workforce);
+            long nanos = System.nanoTime() - started;
+
+            long gross = 0, net = 0, employeePf = 0, employerPf = 0, tax = 0, ctcTotal = 0;
+            int overCtc = 0;
+            for (int i = 0; i < workforce.size(); i++) {
+                gross += workforce.grossEarnings[i];
+                net += workforce.netSalary[i];
+                employeePf += workforce.employeePf[i];
+                employerPf += workforce.employerPf[i];
+                tax += workforce.professionalTax[i];
+                ctcTotal += workforce.monthlyCtc[i];
+                if (workforce.specialAllowance[i] < 0) overCtc++;
             }
-            else salaryRepo.save(data);
-            return ResponseEntity.ok().body("Structure saved successfully");
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("employees", workforce.size());
+            body.put("structuresOverCtc", overCtc);
+            body.put("monthlyCtc", PayrollEngine.toMajor(ctcTotal));
+            body.put("grossEarnings", PayrollEngine.toMajor(gross));
+            body.put("employeeProvidentFund", PayrollEngine.toMajor(employeePf));
+            body.put("employerProvidentFund", PayrollEngine.toMajor(employerPf));
+            body.put("professionalTax", PayrollEngine.toMajor(tax));
+            body.put("netSalary", PayrollEngine.toMajor(net));
+            body.put("computeMicros", nanos / 1000);
+            body.put("nanosPerEmployee", workforce.size() == 0 ? 0 : nanos / workforce.size());
+            return ResponseEntity.ok().body(body);
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    public ResponseEntity<?> fetchSalaryHistory(Long employeeId) {
+        try{
+            return ResponseEntity.ok().body(salaryHistoryService.history(employeeId));
         } catch (Exception e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server Error");
@@ -64,22 +205,92 @@ public class SalaryServices {
     public ResponseEntity<?> storePaySlips(List<Payslip> data) {
         try{
             for(Payslip entity: data){
-                paySlipRepo.save(entity);
+                if (entity.getUser() == null || entity.getUser().getId() == null || entity.getYear() == null
+                        || entity.getMonth() == null || entity.getMonth() < 1 || entity.getMonth() > 12) {
+                    return ResponseEntity.badRequest().body("Each payslip needs a user, a year and a month (1-12)");
+                }
             }
-            return ResponseEntity.ok().body(paySlipRepo.findAll());
+            // Issued from the structure in effect for each month; months already issued stay as they are.
+            paySlipRepo.upsertAll(data);
+            return ResponseEntity.ok().body(Map.of("stored", data.size()));
         } catch (Exception e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server Error");
         }
     }
 
-    public ResponseEntity<?> fetchAllPayslips() {
+    /**
+     * Every employee's payslips, for the payroll screens; Admin and HR only.
+     */
+    public ResponseEntity<?> fetchAllPayslips(Authentication authentication) {
         try{
-            List<Payslip> data = paySlipRepo.findAll();
+            if (!isPayrollStaff(authentication)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to view these payslips");
+            }
+            List<PayslipDTO> data = paySlipRepo.findAllPayslipViews();
             return ResponseEntity.ok().body(data);
         } catch (Exception e) {
             System.out.println(e.getMessage());
             return ResponseEntity.internalServerError().body("Internal Server Error");
         }
     }
+
+    /**
+     * One employee's payslips, newest first, keyset-paginated. Employees can only read their own;
+     * Admin and HR can read anyone's.
+     */
+    public ResponseEntity<?> fetchEmployeePayslips(Long id, Integer year, Integer month, String cursor, Integer size,
+                                                   Authentication authentication) {
+        try{
+            if (!canReadPayslips(authentication, id)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to view these payslips");
+            }
+            if (month != null && (month < 1 || month > 12)) {
+                return ResponseEntity.badRequest().body("month must be between 1 and 12");
+            }
+
+            int[] after = null;
+            if (cursor != null && !cursor.isEmpty()) {
+                try {
+                    String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("-");
+                    after = new int[] {Integer.parseInt(key[0]), Integer.parseInt(key[1])};
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    return ResponseEntity.badRequest().body("Invalid cursor");
+                }
+            }
+
+            int limit = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+            List<PayslipDTO> rows = paySlipRepo.findEmployeePayslips(id, year, month, after, limit + 1);
+            String nextCursor = null;
+            if (rows.size() > limit) {
+                rows = rows.subList(0, limit);
+                PayslipDTO last = rows.get(limit - 1);
+                String key = last.getYear() + "-" + last.getMonth();
+                nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return ResponseEntity.ok().body(new KeysetPage<>(rows, nextCursor));
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return ResponseEntity.internalServerError().body("Internal Server Error");
+        }
+    }
+
+    // Admin and HR see everyone's pay data.
+    public static boolean isPayrollStaff(Authentication authentication) {
+        if (authentication == null) return false;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if ("Admin".equals(authority.getAuthority()) || "HR".equals(authority.getAuthority())) return true;
+        }
+        return false;
+    }
+
+    private boolean canReadPayslips(Authentication authentication, Long employeeId) {
+        if (authentication == null) return false;
+        if (isPayrollStaff(authentication)) return true;
+        if (authentication.getPrincipal() instanceof TokenPrincipal principal) {
+            return employeeId.equals(principal.id());
+        }
+        EmployeeIdentity identity = identityCache.findByOfficialEmail(authentication.getName());
+        return identity != null && employeeId.equals(identity.id());
+    }
 }
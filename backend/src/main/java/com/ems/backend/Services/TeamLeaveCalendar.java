@@ -0,0 +1,293 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.Employee;
+import com.ems.backend.Models.Leave;
+import com.ems.backend.Models.LeaveStatus;
+import com.ems.backend.Repositories.LeaveRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Who is off on which day, as one bitset of employee ordinals per day (approved and pending kept apart).
+ * A team query ANDs each day's bitset with the bitset of the manager's reporting subtree from
+ * {@link OrgChartIndex}, so a 90-day window is 90 word-wise intersections.
+ * Loaded at startup from active leaves ending within the history window and kept current
+ * from {@link LeaveChangedEvent}s. Only days from the history window up to a forward horizon are
+ * materialized; the window slides with the date, dropping old days and filling in new ones.
+ */
+@Service
+public class TeamLeaveCalendar {
+
+    public static final int MAX_WINDOW_DAYS = 90;
+
+    private record Span(long leaveId, int ordinal, int start, int end, boolean approved) {
+    }
+
+    private final LeaveRepo leaveRepo;
+    private final OrgChartIndex orgChartIndex;
+    private final int historyDays;
+    private final int horizonDays;
+
+    // All guarded by this.
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[256];
+    private String[] names = new String[256];
+    private int size;
+    private final Map<Integer, BitSet> approvedByDay = new HashMap<>();
+    private final Map<Integer, BitSet> pendingByDay = new HashMap<>();
+    private final Map<Long, Span> spans = new HashMap<>();
+    private final Map<Integer, List<Span>> spansByOrdinal = new HashMap<>();
+    private int firstDay;
+    private int lastDay;
+    // Leaves changed while load() is reading; their rows are older than the events and are skipped.
+    private Set<Long> changedDuringLoad;
+
+    public TeamLeaveCalendar(LeaveRepo leaveRepo, OrgChartIndex orgChartIndex,
+                             @Value("${ems.leave.calendar.history-days:365}") int historyDays,
+                             @Value("${ems.leave.calendar.horizon-days:730}") int horizonDays) {
+        this.leaveRepo = leaveRepo;
+        this.orgChartIndex = orgChartIndex;
+        this.historyDays = historyDays;
+        this.horizonDays = horizonDays;
+        LocalDate today = LocalDate.now();
+        this.firstDay = (int) today.minusDays(historyDays).toEpochDay();
+        this.lastDay = (int) today.plusDays(horizonDays).toEpochDay();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate today = LocalDate.now();
+        LocalDate since = today.minusDays(historyDays);
+        synchronized (this) {
+            changedDuringLoad = new HashSet<>();
+        }
+        List<Object[]> rows;
+        try {
+            rows = leaveRepo.findCalendarRows(LeaveOverlapIndex.ACTIVE,
+                    Date.from(since.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedDuringLoad = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            firstDay = (int) since.toEpochDay();
+            lastDay = (int) today.plusDays(horizonDays).toEpochDay();
+            for (Object[] row : rows) {
+                // Includes leaves cancelled or rejected meanwhile, which have no span to detect them by.
+                if (changedDuringLoad.contains((Long) row[0])) continue;
+                int ordinal = ordinal((Long) row[1], name((String) row[2], (String) row[3]));
+                add(new Span((Long) row[0], ordinal, epochDay((Date) row[5]), epochDay((Date) row[6]),
+                        row[4] == LeaveStatus.APPROVED));
+            }
+            changedDuringLoad = null;
+        }
+    }
+
+    @EventListener
+    public synchronized void onLeaveChanged(LeaveChangedEvent event) {
+        Leave leave = event.leave();
+        if (changedDuringLoad != null) {
+            changedDuringLoad.add(leave.getId());
+        }
+        slideWindow();
+        Span existing = spans.get(leave.getId());
+        if (existing != null) {
+            remove(existing);
+        }
+        if (LeaveOverlapIndex.ACTIVE.contains(leave.getStatus())) {
+            Employee employee = leave.getEmployee();
+            int ordinal = ordinal(employee.getId(), name(employee.getFirstName(), employee.getLastName()));
+            add(new Span(leave.getId(), ordinal, epochDay(leave.getStartDate()), epochDay(leave.getEndDate()),
+                    leave.getStatus() == LeaveStatus.APPROVED));
+        }
+    }
+
+    @EventListener
+    public synchronized void onEmployeeChanged(EmployeeChangedEvent event) {
+        Integer ordinal = ordinals.get(event.employee().getId());
+        if (ordinal != null) {
+            names[ordinal] = name(event.employee().getFirstName(), event.employee().getLastName());
+        }
+    }
+
+    /**
+     * Day-by-day leave headcount for everyone reporting to the manager, directly or indirectly.
+     * Returns null if the manager is unknown.
+     */
+    public Map<String, Object> teamCalendar(Long managerId, LocalDate from, LocalDate to, boolean includePending) {
+        long[] team = orgChartIndex.subtree(managerId);
+        if (team == null) return null;
+
+        int start = (int) from.toEpochDay();
+        int end = (int) to.toEpochDay();
+        List<Map<String, Object>> days = new ArrayList<>(end - start + 1);
+        Map<Long, String> people = new LinkedHashMap<>();
+
+        synchronized (this) {
+            slideWindow();
+            if (start < firstDay) {
+                throw new IllegalArgumentException("Calendar history starts at " + LocalDate.ofEpochDay(firstDay));
+            }
+            if (end > lastDay) {
+                throw new IllegalArgumentException("Calendar horizon ends at " + LocalDate.ofEpochDay(lastDay));
+            }
+            BitSet teamMask = new BitSet(size);
+            for (long id : team) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal != null) teamMask.set(ordinal);
+            }
+
+            for (int day = start; day <= end; day++) {
+                BitSet approved = intersect(approvedByDay.get(day), teamMask);
+                BitSet pending = includePending ? intersect(pendingByDay.get(day), teamMask) : null;
+
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("date", LocalDate.ofEpochDay(day).toString());
+                entry.put("onLeave", approved.cardinality());
+                entry.put("employeeIds", collect(approved, people));
+                if (includePending) {
+                    entry.put("pending", pending.cardinality());
+                    entry.put("pendingEmployeeIds", collect(pending, people));
+                }
+                days.add(entry);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("managerId", managerId);
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("teamSize", team.length);
+        result.put("days", days);
+        result.put("people", people);
+        return result;
+    }
+
+    private static BitSet intersect(BitSet day, BitSet mask) {
+        BitSet result = new BitSet();
+        if (day != null) {
+            result.or(day);
+            result.and(mask);
+        }
+        return result;
+    }
+
+    // Caller holds the lock.
+    private long[] collect(BitSet bits, Map<Long, String> people) {
+        long[] result = new long[bits.cardinality()];
+        int i = 0;
+        for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+            result[i++] = ids[ordinal];
+            people.putIfAbsent(ids[ordinal], names[ordinal]);
+        }
+        return result;
+    }
+
+    // Caller holds the lock.
+    private void add(Span span) {
+        spans.put(span.leaveId(), span);
+        spansByOrdinal.computeIfAbsent(span.ordinal(), k -> new ArrayList<>()).add(span);
+        setDays(span, Math.max(span.start(), firstDay), Math.min(span.end(), lastDay));
+    }
+
+    // Caller holds the lock.
+    private void setDays(Span span, int from, int to) {
+        Map<Integer, BitSet> byDay = span.approved() ? approvedByDay : pendingByDay;
+        for (int day = from; day <= to; day++) {
+            byDay.computeIfAbsent(day, k -> new BitSet()).set(span.ordinal());
+        }
+    }
+
+    // Caller holds the lock. Moves the window to today: drops the day bitsets and the leaves that end
+    // before its new start, and fills in the days that came within the horizon.
+    private void slideWindow() {
+        LocalDate today = LocalDate.now();
+        int newFirstDay = (int) today.minusDays(historyDays).toEpochDay();
+        int newLastDay = (int) today.plusDays(horizonDays).toEpochDay();
+        if (newFirstDay <= firstDay && newLastDay <= lastDay) return;
+        for (int day = firstDay; day < newFirstDay; day++) {
+            approvedByDay.remove(day);
+            pendingByDay.remove(day);
+        }
+        Iterator<Span> it = spans.values().iterator();
+        while (it.hasNext()) {
+            Span span = it.next();
+            if (span.end() < newFirstDay) {
+                it.remove();
+                List<Span> others = spansByOrdinal.get(span.ordinal());
+                others.remove(span);
+                if (others.isEmpty()) spansByOrdinal.remove(span.ordinal());
+            } else if (span.end() > lastDay && span.start() <= newLastDay) {
+                setDays(span, Math.max(span.start(), lastDay + 1), Math.min(span.end(), newLastDay));
+            }
+        }
+        firstDay = Math.max(firstDay, newFirstDay);
+        lastDay = Math.max(lastDay, newLastDay);
+    }
+
+    // Caller holds the lock. A day stays set if another leave of the same kind still covers it.
+    private void remove(Span span) {
+        spans.remove(span.leaveId());
+        List<Span> others = spansByOrdinal.get(span.ordinal());
+        others.remove(span);
+        Map<Integer, BitSet> byDay = span.approved() ? approvedByDay : pendingByDay;
+        for (int day = Math.max(span.start(), firstDay); day <= Math.min(span.end(), lastDay); day++) {
+            boolean stillCovered = false;
+            for (Span other : others) {
+                if (other.approved() == span.approved() && other.start() <= day && day <= other.end()) {
+                    stillCovered = true;
+                    break;
+                }
+            }
+            BitSet bits = byDay.get(day);
+            if (!stillCovered && bits != null) {
+                bits.clear(span.ordinal());
+                if (bits.isEmpty()) byDay.remove(day);
+            }
+        }
+        if (others.isEmpty()) spansByOrdinal.remove(span.ordinal());
+    }
+
+    // Caller holds the lock.
+    private int ordinal(Long employeeId, String name) {
+        Integer existing = ordinals.get(employeeId);
+        if (existing != null) {
+            names[existing] = name;
+            return existing;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        ids[size] = employeeId;
+        names[size] = name;
+        ordinals.put(employeeId, size);
+        return size++;
+    }
+
+    private static String name(String firstName, String lastName) {
+        return ((firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName)).trim();
+    }
+
+    private static int epochDay(Date date) {
+        return (int) LeaveLedgerService.toLocalDate(date).toEpochDay();
+    }
+}
@@ -0,0 +1,291 @@
+package com.ems.backend.Services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders square JPEG thumbnails of profile pictures at a few fixed sizes.
+ * Uploads are decoded once on a background thread; rendered thumbnails are kept on disk
+ * next to the blob store and served from an in-memory cache bounded by total bytes.
+ * Only one render per source runs at a time, sources that cannot be decoded or are too
+ * large are marked on disk so they are not read again, and image dimensions are checked
+ * from the header before any pixels are decoded.
+ */
+@Service
+public class ThumbnailService {
+
+    public static final int[] SIZES = {48, 128, 512};
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final BlobStore blobStore;
+    private final Path root;
+    private final long maxCacheBytes;
+    private final long maxSourcePixels;
+    private final ExecutorService renderer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thumbnail-renderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Access-ordered so the least recently served thumbnail is evicted first.
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    // Renders in progress by source hash; later callers wait for the running one.
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> rendering = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejectedSources = new LongAdder();
+
+    public ThumbnailService(BlobStore blobStore,
+                            @Value("${ems.thumbnails.root:./data/thumbnails}") String root,
+                            @Value("${ems.thumbnails.cache-max-bytes:16777216}") long maxCacheBytes,
+                            @Value("${ems.thumbnails.max-source-pixels:25000000}") long maxSourcePixels) {
+        this.blobStore = blobStore;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxSourcePixels = maxSourcePixels;
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create thumbnail directory " + this.root, e);
+        }
+    }
+
+    /**
+     * Smallest rendered size that is at least the requested one, or the largest size.
+     */
+    public static int snap(int requested) {
+        for (int size : SIZES) {
+            if (size >= requested) return size;
+        }
+        return SIZES[SIZES.length - 1];
+    }
+
+    /**
+     * Queues rendering of every thumbnail size for a newly uploaded picture.
+     */
+    public void renderAsync(String sourceHash) {
+        renderer.execute(() -> {
+            try {
+                render(sourceHash);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Thumbnail rendering failed for " + sourceHash + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Returns the JPEG bytes of the thumbnail, rendering it on demand if the background job has not run.
+     * Returns null when the source is not a decodable image or exceeds the pixel limit.
+     */
+    public byte[] get(String sourceHash, int size) throws IOException {
+        String key = sourceHash + "-" + size;
+        synchronized (cache) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        Path file = path(sourceHash, size);
+        if (!Files.exists(file)) {
+            render(sourceHash);
+        }
+        if (!Files.exists(file)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        put(key, bytes);
+        return bytes;
+    }
+
+    private void put(String key, byte[] bytes) {
+        if (bytes.length > maxCacheBytes) return;
+        synchronized (cache) {
+            byte[] previous = cache.put(key, bytes);
+            if (previous != null) cachedBytes -= previous.length;
+            cachedBytes += bytes.length;
+            Iterator<Map.Entry<String, byte[]>> it = cache.entrySet().iterator();
+            while (cachedBytes > maxCacheBytes && it.hasNext()) {
+                cachedBytes -= it.next().getValue().length;
+                it.remove();
+            }
+        }
+    }
+
+    // Runs renderAll for the source unless a render of it is already running, in which case it waits for that one.
+    private void render(String sourceHash) throws IOException {
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> running = rendering.putIfAbsent(sourceHash, mine);
+        if (running != null) {
+            try {
+                running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                throw e;
+            }
+            return;
+        }
+        try {
+            renderAll(sourceHash);
+            mine.complete(null);
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(sourceHash, mine);
+        }
+    }
+
+    private void renderAll(String sourceHash) throws IOException {
+        Path rejected = rejectedMarker(sourceHash);
+        if (Files.exists(rejected)) {
+            return;
+        }
+        BufferedImage source = decode(sourceHash);
+        if (source == null) {
+            // Blobs are content-addressed, so a source that failed once always will.
+            rejectedSources.increment();
+            Files.write(rejected, new byte[0]);
+            return;
+        }
+
+        // Centre-crop to a square once, then scale down for each size.
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage square = source.getSubimage((source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        for (int size : SIZES) {
+            Path file = path(sourceHash, size);
+            if (Files.exists(file)) continue;
+            byte[] jpeg = encodeJpeg(scale(square, size));
+            Path temp = Files.createTempFile(root, "thumb-", ".part");
+            Files.write(temp, jpeg);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Decodes the source, or returns null when it is not a readable image or its header declares
+     * more than maxSourcePixels. The size is read before any pixel data, so a small file declaring
+     * huge dimensions is refused without allocating its raster.
+     */
+    private BufferedImage decode(String sourceHash) throws IOException {
+        try (FileChannel channel = blobStore.open(sourceHash);
+             ImageInputStream in = ImageIO.createImageInputStream(Channels.newInputStream(channel))) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels <= 0 || pixels > maxSourcePixels) return null;
+                return reader.read(0);
+            } catch (IIOException | RuntimeException e) {
+                // Decoders report corrupt data with IllegalArgumentException, ArrayIndexOutOfBoundsException
+                // and the like as often as with IIOException; all of them mean the source is unusable.
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image, int size) {
+        // Halve repeatedly before the final step so large photos keep some quality with bilinear filtering.
+        BufferedImage current = image;
+        int currentSide = current.getWidth();
+        do {
+            int next = Math.max(size, currentSide / 2);
+            if (currentSide <= size) next = size;
+            BufferedImage scaled = new BufferedImage(next, next, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, next, next);
+            g.drawImage(current, 0, 0, next, next, null);
+            g.dispose();
+            current = scaled;
+            currentSide = next;
+        } while (currentSide != size);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private Path path(String sourceHash, int size) {
+        return root.resolve(sourceHash + "-" + size + ".jpg");
+    }
+
+    private Path rejectedMarker(String sourceHash) {
+        return root.resolve(sourceHash + ".rejected");
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (cache) {
+            stats.put("entries", cache.size());
+            stats.put("bytes", cachedBytes);
+        }
+        stats.put("maxBytes", maxCacheBytes);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("rendering", rendering.size());
+        stats.put("rejectedSources", rejectedSources.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderer.shutdown();
+    }
+}
@@ -0,0 +1,110 @@
+package com.ems.backend.Services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timing wheel for cheap, coarse expiry of in-memory entries.
+ * Scheduling is O(1) and each tick only visits one bucket, so nothing ever scans every live entry.
+ * Tasks run on the wheel's own daemon thread and must be short; callers that need exact expiry
+ * should still compare deadlines when reading, since a task may fire up to one tick late.
+ */
+public class TimingWheel {
+
+    private static final class Timeout {
+        final long deadlineTick;
+        final Runnable task;
+        long remainingRounds;
+
+        Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<Queue<Timeout>> buckets;
+    // New timeouts are placed into buckets by the wheel thread only, so buckets need no locking.
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+    private long tick;
+
+    public TimingWheel(String name, long tickMillis, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Runs the task on the wheel thread once the delay has passed.
+     */
+    public void schedule(long delayMillis, Runnable task) {
+        long elapsedTicks = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) / tickMillis;
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+        pending.add(new Timeout(elapsedTicks + ticks, task));
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long nextTickMillis = (tick + 1) * tickMillis;
+            long sleepMillis = nextTickMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                    continue;
+                }
+            }
+            tick++;
+            transferPending();
+            expire(buckets.get((int) (tick & mask)));
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            long deadline = Math.max(timeout.deadlineTick, tick);
+            timeout.remainingRounds = (deadline - tick) / buckets.size();
+            buckets.get((int) (deadline & mask)).add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                continue;
+            }
+            it.remove();
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                System.out.println("Timing wheel task failed: " + e.getMessage());
+            }
+        }
+    }
+}
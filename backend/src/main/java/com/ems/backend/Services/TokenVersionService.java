@@ -0,0 +1,37 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.DTO.EmployeeIdentity;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers token version checks from the identity cache so the JWT filter
+ * can detect revoked tokens without a database round trip.
+ */
+@Service
+public class TokenVersionService {
+
+    private final EmployeeIdentityCache identityCache;
+
+    public TokenVersionService(EmployeeIdentityCache identityCache) {
+        this.identityCache = identityCache;
+    }
+
+    /**
+     * Returns the current version for the employee, or -1 if the employee does not exist.
+     */
+    public int currentVersion(Long employeeId) {
+        EmployeeIdentity identity = identityCache.findById(employeeId);
+        return identity == null ? -1 : identity.tokenVersion();
+    }
+
+    public boolean isCurrent(Long employeeId, int tokenVersion) {
+        return currentVersion(employeeId) == tokenVersion;
+    }
+
+    /**
+     * Must be called after a new token version has been saved for the employee.
+     */
+    public void evict(Long employeeId) {
+        identityCache.evict(employeeId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ems.backend.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    @Test
+    void touchingEndpointsOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 10, 20);
+
+        assertThat(ids(tree.overlapping(20, 25))).containsExactly(1L);
+        assertThat(ids(tree.overlapping(5, 10))).containsExactly(1L);
+        assertThat(ids(tree.overlapping(15, 15))).containsExactly(1L);
+        assertThat(tree.overlapping(21, 30)).isEmpty();
+        assertThat(tree.overlapping(0, 9)).isEmpty();
+    }
+
+    @Test
+    void singleDayIntervals() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 5, 5);
+        tree.insert(2, 6, 6);
+
+        assertThat(ids(tree.overlapping(5, 5))).containsExactly(1L);
+        assertThat(ids(tree.overlapping(5, 6))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void duplicateStartsAreKeptApartById() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 10, 12);
+        tree.insert(2, 10, 30);
+        tree.insert(3, 10, 15);
+
+        assertThat(tree.size()).isEqualTo(3);
+        assertThat(ids(tree.overlapping(20, 20))).containsExactly(2L);
+
+        assertThat(tree.remove(2, 10)).isTrue();
+        assertThat(tree.remove(2, 10)).isFalse();
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.overlapping(20, 20)).isEmpty();
+        assertThat(ids(tree.overlapping(10, 10))).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void removeNeedsTheMatchingStart() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 10, 20);
+
+        assertThat(tree.remove(1, 11)).isFalse();
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.remove(1, 10)).isTrue();
+        assertThat(tree.size()).isZero();
+        assertThat(tree.overlapping(Integer.MIN_VALUE, Integer.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomInsertsAndRemoves() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<IntervalTree.Interval> live = new ArrayList<>();
+        long nextId = 1;
+
+        for (int step = 0; step < 5000; step++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                int start = random.nextInt(1000);
+                int end = start + random.nextInt(30);
+                tree.insert(nextId, start, end);
+                live.add(new IntervalTree.Interval(nextId++, start, end));
+            } else {
+                IntervalTree.Interval removed = live.remove(random.nextInt(live.size()));
+                assertThat(tree.remove(removed.id(), removed.start())).isTrue();
+            }
+
+            if (step % 50 == 0) {
+                int from = random.nextInt(1050) - 25;
+                int to = from + random.nextInt(60);
+                Set<Long> expected = new HashSet<>();
+                for (IntervalTree.Interval interval : live) {
+                    if (interval.start() <= to && interval.end() >= from) expected.add(interval.id());
+                }
+                assertThat(ids(tree.overlapping(from, to))).containsExactlyInAnyOrderElementsOf(expected);
+                assertThat(tree.size()).isEqualTo(live.size());
+            }
+        }
+    }
+
+    private static List<Long> ids(List<IntervalTree.Interval> intervals) {
+        return intervals.stream().map(IntervalTree.Interval::id).toList();
+    }
+}
@@ -0,0 +1,110 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.DTO.EmployeeSummary;
+import com.ems.backend.DTO.KeysetPage;
+import com.ems.backend.Repositories.EmployeeRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KeysetCursorTest {
+
+    @Mock
+    private EmployeeRepo employeeRepo;
+
+    @InjectMocks
+    private EmployeeServices employeeServices;
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        for (String key : new String[]{"42", "42:Smith", "7:a:b@example.com", "9:Zoë", ""}) {
+            String cursor = KeysetCursor.encode(key);
+            assertThat(cursor).doesNotContain("=", "+", "/");
+            assertThat(KeysetCursor.decode(cursor)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void decodeRejectsMalformedCursor() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void employeeCursorCarriesIdAndSortValue() {
+        when(employeeRepo.findSummaries(any(), any(), anyString(), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(List.of(summary(1L, "Adams"), summary(2L, "Baker"), summary(3L, "Clark")));
+
+        String cursor = nextCursor(employeeServices.listEmployees(null, null, "lastName", "asc", null, 2));
+
+        assertThat(KeysetCursor.decode(cursor)).isEqualTo("2:Baker");
+        employeeServices.listEmployees(null, null, "lastName", "asc", cursor, 2);
+        verify(employeeRepo).findSummaries(null, null, "lastName", false, "Baker", 2L, 3);
+    }
+
+    @Test
+    void employeeCursorKeepsSeparatorsInsideTheSortValue() {
+        when(employeeRepo.findSummaries(any(), any(), anyString(), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(List.of(summary(5L, "o'neil:jr"), summary(6L, "zed")));
+
+        String cursor = nextCursor(employeeServices.listEmployees(null, null, "lastName", "desc", null, 1));
+
+        employeeServices.listEmployees(null, null, "lastName", "desc", cursor, 1);
+        verify(employeeRepo).findSummaries(null, null, "lastName", true, "o'neil:jr", 5L, 2);
+    }
+
+    @Test
+    void employeeCursorForNullSortValueHasOnlyTheId() {
+        when(employeeRepo.findSummaries(any(), any(), anyString(), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(List.of(summary(8L, null), summary(9L, null)));
+
+        String cursor = nextCursor(employeeServices.listEmployees(null, null, "lastName", "asc", null, 1));
+
+        assertThat(KeysetCursor.decode(cursor)).isEqualTo("8");
+        employeeServices.listEmployees(null, null, "lastName", "asc", cursor, 1);
+        verify(employeeRepo).findSummaries(isNull(), isNull(), eq("lastName"), eq(false), isNull(), eq(8L), eq(2));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(employeeRepo.findSummaries(any(), any(), anyString(), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(List.of(summary(1L, "Adams")));
+
+        assertThat(nextCursor(employeeServices.listEmployees(null, null, "id", null, null, 2))).isNull();
+    }
+
+    @Test
+    void malformedEmployeeCursorIsABadRequest() {
+        ResponseEntity<?> response = employeeServices.listEmployees(null, null, "id", null, KeysetCursor.encode("abc"), 2);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private static String nextCursor(ResponseEntity<?> response) {
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((KeysetPage<?>) response.getBody()).getNextCursor();
+    }
+
+    private static EmployeeSummary summary(Long id, String lastName) {
+        EmployeeSummary summary = new EmployeeSummary();
+        summary.setId(id);
+        summary.setLastName(lastName);
+        return summary;
+    }
+}
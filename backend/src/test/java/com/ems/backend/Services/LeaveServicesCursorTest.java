@@ -0,0 +1,76 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.DTO.KeysetPage;
+import com.ems.backend.DTO.LeaveDTO;
+import com.ems.backend.Models.LeaveStatus;
+import com.ems.backend.Repositories.LeaveRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LeaveServicesCursorTest {
+
+    private LeaveRepo leaveRepo;
+    private LeaveServices leaveServices;
+
+    @BeforeEach
+    void setUp() {
+        leaveRepo = mock(LeaveRepo.class);
+        leaveServices = new LeaveServices(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(leaveServices, "leaveRepo", leaveRepo);
+    }
+
+    @Test
+    void cursorResumesAfterTheLastIdOfThePage() {
+        when(leaveRepo.findLeaveViews(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(leave(30L), leave(20L), leave(10L)));
+
+        String cursor = nextCursor(leaveServices.queryLeaves(7L, "pending", null, null, null, null, 2));
+
+        assertThat(KeysetCursor.decode(cursor)).isEqualTo("20");
+        leaveServices.queryLeaves(7L, "pending", null, null, null, cursor, 2);
+        verify(leaveRepo).findLeaveViews(7L, LeaveStatus.PENDING, null, null, null, 20L, 3);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(leaveRepo.findLeaveViews(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(leave(5L)));
+
+        assertThat(nextCursor(leaveServices.queryLeaves(null, null, null, null, null, null, 2))).isNull();
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        ResponseEntity<?> notBase64 = leaveServices.queryLeaves(null, null, null, null, null, "%%%", 2);
+        ResponseEntity<?> notAnId = leaveServices.queryLeaves(null, null, null, null, null, KeysetCursor.encode("x"), 2);
+
+        assertThat(notBase64.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(notAnId.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(leaveRepo);
+    }
+
+    private static String nextCursor(ResponseEntity<?> response) {
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((KeysetPage<?>) response.getBody()).getNextCursor();
+    }
+
+    private static LeaveDTO leave(Long id) {
+        LeaveDTO leave = new LeaveDTO();
+        leave.setId(id);
+        return leave;
+    }
+}
@@ -0,0 +1,250 @@
+package com.ems.backend.Services;
+
+import com.ems.backend.Models.MailMessage;
+import com.ems.backend.Repositories.MailOutboxRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailOutboxServiceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final Map<Long, MailMessage> rows = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private FakeSmtpServer smtp;
+    private MailOutboxRepo outboxRepo;
+    private MailOutboxService outbox;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new FakeSmtpServer();
+
+        // Only the row lookups are stubbed; the status updates are checked with verify.
+        outboxRepo = mock(MailOutboxRepo.class);
+        when(outboxRepo.save(any(MailMessage.class))).thenAnswer(invocation -> {
+            MailMessage message = invocation.getArgument(0);
+            message.setId(ids.incrementAndGet());
+            message.setCreatedAt(new Date());
+            rows.put(message.getId(), message);
+            return message;
+        });
+        when(outboxRepo.claim(anyLong(), any())).thenAnswer(invocation -> {
+            MailMessage message = rows.get(invocation.<Long>getArgument(0));
+            message.setAttempts(message.getAttempts() + 1);
+            return 1;
+        });
+        when(outboxRepo.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+
+    }
+
+    // One worker so every message goes over the same connection; a poll interval long
+    // enough that only the first poll runs during a test.
+    private MailOutboxService start() {
+        outbox = new MailOutboxService(outboxRepo, senderFor(smtp), 1, MAX_ATTEMPTS, 30, 3600, 60, 3600);
+        outbox.start();
+        return outbox;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (outbox != null) outbox.shutdown();
+        smtp.close();
+    }
+
+    @Test
+    void deliversQueuedMessageAndMarksItSent() throws InterruptedException {
+        Long id = start().enqueue("jane@example.com", "Welcome", "<p>Hello Jane</p>");
+
+        String data = smtp.received.poll(5, TimeUnit.SECONDS);
+
+        assertThat(data).isNotNull();
+        assertThat(data).contains("Subject: Welcome", "To: jane@example.com", "<p>Hello Jane</p>");
+        verify(outboxRepo, timeout(5000)).markSent(eq(id), any());
+        verify(outboxRepo, never()).markRetry(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void workerKeepsOneConnectionAcrossMessages() throws InterruptedException {
+        start();
+        Long first = outbox.enqueue("a@example.com", "One", "<p>1</p>");
+        Long second = outbox.enqueue("b@example.com", "Two", "<p>2</p>");
+
+        assertThat(smtp.received.poll(5, TimeUnit.SECONDS)).contains("Subject: One");
+        assertThat(smtp.received.poll(5, TimeUnit.SECONDS)).contains("Subject: Two");
+        verify(outboxRepo, timeout(5000)).markSent(eq(first), any());
+        verify(outboxRepo, timeout(5000)).markSent(eq(second), any());
+        assertThat(smtp.connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedMessageIsScheduledForRetry() {
+        smtp.rejectData = true;
+
+        Long id = start().enqueue("jane@example.com", "Welcome", "<p>Hello Jane</p>");
+
+        verify(outboxRepo, timeout(5000)).markRetry(eq(id), any(), anyString());
+        verify(outboxRepo, never()).markSent(anyLong(), any());
+        verify(outboxRepo, never()).markDead(anyLong(), anyString());
+    }
+
+    @Test
+    void rejectedMessageOnItsLastAttemptIsDead() {
+        smtp.rejectData = true;
+        MailMessage message = new MailMessage();
+        message.setRecipient("jane@example.com");
+        message.setSubject("Welcome");
+        message.setBody("<p>Hello Jane</p>");
+        message.setAttempts(MAX_ATTEMPTS - 1);
+        message.setId(ids.incrementAndGet());
+        message.setCreatedAt(new Date());
+        rows.put(message.getId(), message);
+        // Left over from an earlier run, so the first poll picks it up.
+        when(outboxRepo.findDueIds(any(), any())).thenReturn(List.of(message.getId()));
+
+        start();
+
+        verify(outboxRepo, timeout(5000)).markDead(eq(message.getId()), anyString());
+        verify(outboxRepo, never()).markSent(anyLong(), any());
+    }
+
+    private static JavaMailSenderImpl senderFor(FakeSmtpServer smtp) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(smtp.host());
+        mailSender.setPort(smtp.port());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.from", "ems@example.com");
+        properties.put("mail.smtp.localhost", "localhost");
+        properties.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(properties);
+        return mailSender;
+    }
+
+    /**
+     * Just enough of an SMTP server to take messages from the mail workers: answers
+     * EHLO/HELO, MAIL, RCPT, DATA, RSET, NOOP and QUIT, and keeps each DATA payload.
+     */
+    private static final class FakeSmtpServer implements AutoCloseable {
+
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        final AtomicInteger connections = new AtomicInteger();
+        volatile boolean rejectData;
+
+        private final ServerSocket server;
+
+        FakeSmtpServer() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        String host() {
+            return server.getInetAddress().getHostAddress();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    Thread session = new Thread(() -> serve(socket), "fake-smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                 Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1)) {
+                reply(out, "220 localhost fake SMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO", "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            String data = readData(in);
+                            if (rejectData) {
+                                reply(out, "554 Message rejected");
+                            } else {
+                                received.add(data);
+                                reply(out, "250 Queued");
+                            }
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "500 Unrecognised command");
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away.
+            }
+        }
+
+        private static String readData(BufferedReader in) throws IOException {
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(".")) {
+                // Undo dot-stuffing.
+                data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+            }
+            return data.toString();
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
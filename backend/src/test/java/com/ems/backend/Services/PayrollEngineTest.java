@@ -0,0 +1,122 @@
+package com.ems.backend.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayrollEngineTest {
+
+    private static final String SLABS = "0:0,15000:150,21000:200";
+
+    private final PayrollEngine engine = new PayrollEngine(1200, 4000, 4000, SLABS, Integer.MAX_VALUE);
+
+    @Test
+    void derivesEveryComponentFromCtc() {
+        PayrollEngine.Workforce w = new PayrollEngine.Workforce(1);
+        int i = w.add(1, 5_000_000, -1, -1, -1);
+
+        engine.compute(w);
+
+        assertThat(w.basic[i]).isEqualTo(2_000_000);
+        assertThat(w.hra[i]).isEqualTo(800_000);
+        assertThat(w.employeePf[i]).isEqualTo(240_000);
+        assertThat(w.employerPf[i]).isEqualTo(240_000);
+        assertThat(w.specialAllowance[i]).isEqualTo(1_960_000);
+        assertThat(w.grossEarnings[i]).isEqualTo(4_760_000);
+        assertThat(w.professionalTax[i]).isEqualTo(20_000);
+        assertThat(w.netSalary[i]).isEqualTo(4_500_000);
+    }
+
+    @Test
+    void sharesRoundHalfUp() {
+        PayrollEngine halves = new PayrollEngine(1200, 5000, 4000, "0:0", Integer.MAX_VALUE);
+        PayrollEngine.Workforce w = new PayrollEngine.Workforce(2);
+        int up = w.add(1, 101, -1, 0, 0);
+        int down = w.add(2, 99, -1, 0, 0);
+
+        halves.compute(w);
+
+        assertThat(w.basic[up]).isEqualTo(51);   // 50.5
+        assertThat(w.basic[down]).isEqualTo(50); // 49.5
+    }
+
+    @Test
+    void taxSlabStartsExactlyAtItsFloor() {
+        // No basic or HRA, so gross equals CTC and the slab edges can be hit exactly.
+        long[] gross = {0, 1_499_999, 1_500_000, 2_099_999, 2_100_000, 10_000_000};
+        long[] tax = {0, 0, 15_000, 15_000, 20_000, 20_000};
+        PayrollEngine.Workforce w = new PayrollEngine.Workforce(gross.length);
+        for (int k = 0; k < gross.length; k++) {
+            w.add(k, gross[k], 0, 0, -1);
+        }
+
+        engine.compute(w);
+
+        for (int k = 0; k < gross.length; k++) {
+            assertThat(w.grossEarnings[k]).isEqualTo(gross[k]);
+            assertThat(w.professionalTax[k]).as("tax on %d", gross[k]).isEqualTo(tax[k]);
+        }
+    }
+
+    @Test
+    void fixedComponentsAreKept() {
+        PayrollEngine.Workforce w = new PayrollEngine.Workforce(1);
+        int i = w.add(1, 5_000_000, 2_500_000, 1_000_000, 0);
+
+        engine.compute(w);
+
+        assertThat(w.basic[i]).isEqualTo(2_500_000);
+        assertThat(w.hra[i]).isEqualTo(1_000_000);
+        assertThat(w.professionalTax[i]).isZero();
+        assertThat(w.employeePf[i]).isEqualTo(300_000);
+        assertThat(w.netSalary[i]).isEqualTo(w.grossEarnings[i] - 300_000);
+    }
+
+    @Test
+    void componentsAboveCtcLeaveANegativeSpecialAllowanceOutOfGross() {
+        PayrollEngine.Workforce w = new PayrollEngine.Workforce(1);
+        int i = w.add(1, 1_000_000, 1_000_000, 500_000, 0);
+
+        engine.compute(w);
+
+        assertThat(w.employeePf[i]).isEqualTo(120_000);
+        assertThat(w.specialAllowance[i]).isEqualTo(-620_000);
+        assertThat(w.grossEarnings[i]).isEqualTo(1_500_000);
+        assertThat(w.netSalary[i]).isEqualTo(1_380_000);
+    }
+
+    @Test
+    void parallelPassMatchesSequentialPass() {
+        PayrollEngine parallel = new PayrollEngine(1200, 4000, 4000, SLABS, 4096);
+        Random random = new Random(7);
+        PayrollEngine.Workforce a = new PayrollEngine.Workforce(10_000);
+        PayrollEngine.Workforce b = new PayrollEngine.Workforce(10_000);
+        for (int k = 0; k < 10_000; k++) {
+            long ctc = 1_000_000 + random.nextInt(20_000_000);
+            long basic = random.nextBoolean() ? -1 : random.nextInt(10_000_000);
+            a.add(k, ctc, basic, -1, -1);
+            b.add(k, ctc, basic, -1, -1);
+        }
+
+        engine.compute(a);
+        parallel.compute(b);
+
+        for (int k = 0; k < 10_000; k++) {
+            assertThat(b.netSalary[k]).isEqualTo(a.netSalary[k]);
+            assertThat(b.grossEarnings[k]).isEqualTo(a.grossEarnings[k]);
+            assertThat(b.specialAllowance[k]).isEqualTo(a.specialAllowance[k]);
+        }
+    }
+
+    @Test
+    void convertsToAndFromMinorUnits() {
+        assertThat(PayrollEngine.toMinor(new BigDecimal("12.345"))).isEqualTo(1235);
+        assertThat(PayrollEngine.toMinor((Double) null)).isEqualTo(-1);
+        assertThat(PayrollEngine.monthlyMinor(new BigDecimal("600000"))).isEqualTo(5_000_000);
+        assertThat(PayrollEngine.monthlyMinor(new BigDecimal("100000.01"))).isEqualTo(833_333);
+        assertThat(PayrollEngine.toMajor(4_500_000)).isEqualByComparingTo("45000.00");
+    }
+}
@@ -0,0 +1,74 @@
+package com.ems.backend.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK_MILLIS = 10;
+
+    // Four buckets of 10 ms, so one rotation is 40 ms.
+    private final TimingWheel wheel = new TimingWheel("timing-wheel-test", TICK_MILLIS, 4);
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void timeoutSpanningSeveralRotationsWaitsForItsDeadline() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAfterMillis = new AtomicLong();
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule(130, () -> {
+            firedAfterMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledAt));
+            fired.countDown();
+        });
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        // May fire up to one tick early relative to the call because deadlines are whole ticks.
+        assertThat(firedAfterMillis.get()).isGreaterThanOrEqualTo(130 - TICK_MILLIS);
+    }
+
+    @Test
+    void timeoutsInTheSameBucketFireOnTheirOwnRotation() throws InterruptedException {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+
+        // 20 ms and 60 ms land in the same bucket one rotation apart; 100 ms two rotations apart.
+        wheel.schedule(100, () -> { order.add("late"); fired.countDown(); });
+        wheel.schedule(60, () -> { order.add("middle"); fired.countDown(); });
+        wheel.schedule(20, () -> { order.add("early"); fired.countDown(); });
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("early", "middle", "late");
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        wheel.schedule(10, () -> { throw new IllegalStateException("boom"); });
+        wheel.schedule(50, fired::countDown);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void nonPositiveDelayFiresOnTheNextTick() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        wheel.schedule(0, fired::countDown);
+
+        assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+}
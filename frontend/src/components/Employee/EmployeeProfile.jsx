@@ -88,7 +88,8 @@ const EmployeeProfile = () => {
             }
         };
 
-        fetchImage(`/api/getProfilePic/${employeeData.id}`, setProfileImage);
+        // The avatar is shown at 144px, so a 2x thumbnail is enough; the full upload is never needed here.
+        fetchImage(`/api/getProfilePic/${employeeData.id}/thumbnail/288`, setProfileImage);
         fetchImage(`/api/getAadhaarPan/${employeeData.id}`, setAadhaarPanImage); // Assuming this endpoint exists
 
     }, [employeeData?.id]);
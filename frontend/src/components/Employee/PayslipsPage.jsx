@@ -7,47 +7,49 @@ import { FileText, Calendar, Filter, X, Landmark, TrendingUp, Banknote, Wallet }
 import CustomModal from './CustomModal'; 
 import PayslipDetailView from './PayslipDetailView';
 
+// Payslip months are numbers (1-12); show them by name.
+const monthLabel = (month) => new Date(2000, month - 1, 1).toLocaleString('default', { month: 'long' });
+
 // --- DATA TRANSFORMATION LOGIC ---
 // This function maps your API response to the format our UI components expect.
 const transformPayslipData = (apiPayslip) => {
-    // A safeguard in case salary or user is null
-    if (!apiPayslip.salary || !apiPayslip.user) {
+    // A safeguard for old payslips issued before they carried a snapshot
+    if (apiPayslip.netSalary == null) {
         console.error("Malformed payslip data received:", apiPayslip);
         return null; // Return null to filter this out later
     }
-    const totalDeductions = (apiPayslip.salary.providentFund || 0) + (apiPayslip.salary.professionalTax || 0);
+    const totalDeductions = (apiPayslip.providentFund || 0) + (apiPayslip.professionalTax || 0);
     return {
         id: apiPayslip.id,
-        payPeriod: `${apiPayslip.month} ${apiPayslip.year}`,
+        payPeriod: `${monthLabel(apiPayslip.month)} ${apiPayslip.year}`,
         payDate: apiPayslip.generatedOn,
-        netPay: apiPayslip.salary.netSalary,
+        netPay: apiPayslip.netSalary,
         status: "Paid",
-        employeeId: apiPayslip.user.id,
-        employeeName: `${apiPayslip.user.firstName} ${apiPayslip.user.lastName}`,
-        role: apiPayslip.user.role,
-        grossEarnings: apiPayslip.salary.grossEarnings,
+        employeeId: apiPayslip.employeeId,
+        employeeName: apiPayslip.employeeName,
+        role: apiPayslip.role,
+        grossEarnings: apiPayslip.grossEarnings,
         totalDeductions: totalDeductions,
         earnings: [
-            { type: 'Basic Salary', amount: apiPayslip.salary.basic || 0 },
-            { type: 'House Rent Allowance (HRA)', amount: apiPayslip.salary.hra || 0 },
-            { type: 'Special Allowance', amount: apiPayslip.salary.specialAllowance || 0 },
+            { type: 'Basic Salary', amount: apiPayslip.basic || 0 },
+            { type: 'House Rent Allowance (HRA)', amount: apiPayslip.hra || 0 },
+            { type: 'Special Allowance', amount: apiPayslip.specialAllowance || 0 },
         ].filter(e => e.amount > 0), // Only show earnings with a value
         deductions: [
-            { type: 'Provident Fund (PF)', amount: apiPayslip.salary.providentFund || 0 },
-            { type: 'Professional Tax', amount: apiPayslip.salary.professionalTax || 0 },
+            { type: 'Provident Fund (PF)', amount: apiPayslip.providentFund || 0 },
+            { type: 'Professional Tax', amount: apiPayslip.professionalTax || 0 },
         ].filter(d => d.amount > 0), // Only show deductions with a value
     };
 };
 
 // --- HELPER FUNCTION FOR FILTERS ---
-// Updated to work with the data structure { month: "July", year: 2025 }
+// Works with the data structure { month: 7, year: 2025 }
 const getMonthOptions = (apiPayslips) => {
-    const monthMap = { "January": 1, "February": 2, "March": 3, "April": 4, "May": 5, "June": 6, "July": 7, "August": 8, "September": 9, "October": 10, "November": 11, "December": 12 };
     const months = apiPayslips.map(p => {
-        const monthNumber = String(monthMap[p.month]).padStart(2, '0');
+        const monthNumber = String(p.month).padStart(2, '0');
         return {
             value: `${p.year}-${monthNumber}`, // e.g., "2025-07"
-            label: `${p.month} ${p.year}`
+            label: `${monthLabel(p.month)} ${p.year}`
         };
     });
     // Remove duplicates
@@ -115,9 +117,14 @@ const PayslipsPage = () => {
             setIsLoading(true);
             setError(null);
             try {
-                const response = await api.get(`/api/fetchAllPayslips`);
-                const data = response.data.filter((emp)=>(emp.user.id === id));
-                console.log(data);
+                // Only this employee's payslips, newest first, one page at a time.
+                const data = [];
+                let cursor = null;
+                do {
+                    const response = await api.get(`/api/payslips/employee/${id}`, { params: { cursor, size: 120 } });
+                    data.push(...response.data.items);
+                    cursor = response.data.nextCursor;
+                } while (cursor);
                 setRawPayslips(data);
                 const transformedData = data.map(transformPayslipData).filter(Boolean);
                 setUiPayslips(transformedData);
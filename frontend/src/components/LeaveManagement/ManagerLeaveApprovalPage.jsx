@@ -48,25 +48,35 @@ const ManagerLeaveApprovalPage = () => {
     const role = JSON.parse(localStorage.getItem("userData")).role;
     const id = JSON.parse(localStorage.getItem("userData")).id;
     
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+
+    // Managers only get their team's requests; the server filters and pages them.
+    const fetchPage = async (cursor) => {
+        const params = { size: 50 };
+        if (role === "Manager") params.managerId = id;
+        if (cursor) params.cursor = cursor;
+        const response = await api.get(`/api/leaves`, { params });
+        return response.data;
+    };
+
     useEffect(() => {
         // FIX 2: Correctly handle async operations inside useEffect.
         const fetchLeaveRequests = async () => {
             try {
-                const response = await api.get(`/api/leaves/allRequests`);
-                const data = response.data;
-                console.log(data);
-                if(role === "Manager")
-                {
-                    const data = response.data.filter((emp)=>(emp.manager_id === id))
-                    setLeaveRequests(data);
-                }
-                else setLeaveRequests(data);
-
-                // Calculate stats based on the fetched data directly
-                const pending = data.filter(r => r.status === 'PENDING').length;
-                const approved = data.filter(r => r.status === 'APPROVED').length;
-                const rejected = data.filter(r => r.status === 'REJECTED').length;
-                setStats({ pending, approved, rejected });
+                // First page plus server-side totals; further pages load on demand.
+                const countParams = role === "Manager" ? { managerId: id } : {};
+                const [page, counts] = await Promise.all([
+                    fetchPage(null),
+                    api.get(`/api/leaves/status-counts`, { params: countParams }),
+                ]);
+                setLeaveRequests(page.items);
+                setNextCursor(page.nextCursor);
+                setStats({
+                    pending: counts.data.PENDING,
+                    approved: counts.data.APPROVED,
+                    rejected: counts.data.REJECTED,
+                });
 
             } catch (err) {
                 console.error("Failed to fetch leave requests:", err);
@@ -79,6 +89,21 @@ const ManagerLeaveApprovalPage = () => {
         fetchLeaveRequests();
     }, []); // Empty dependency array means this runs once on mount
 
+    const handleLoadMore = async () => {
+        if (!nextCursor || loadingMore) return;
+        setLoadingMore(true);
+        try {
+            const page = await fetchPage(nextCursor);
+            setLeaveRequests(prev => [...prev, ...page.items]);
+            setNextCursor(page.nextCursor);
+        } catch (err) {
+            console.error("Failed to fetch more leave requests:", err);
+            setError("Failed to load more leave requests.");
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleActionClick = (request, type) => {
         setSelectedRequest(request);
         setActionType(type);
@@ -110,10 +135,14 @@ const ManagerLeaveApprovalPage = () => {
             );
             setLeaveRequests(updatedRequests);
 
-            const pending = updatedRequests.filter(r => r.status === 'PENDING').length;
-            const approved = updatedRequests.filter(r => r.status === 'APPROVED').length;
-            const rejected = updatedRequests.filter(r => r.status === 'REJECTED').length;
-            setStats({ pending, approved, rejected });
+            // Totals cover rows not loaded yet, so adjust them by this one change.
+            const countKey = { PENDING: 'pending', APPROVED: 'approved', REJECTED: 'rejected' };
+            setStats(prev => {
+                const next = { ...prev };
+                if (countKey[selectedRequest.status]) next[countKey[selectedRequest.status]] -= 1;
+                if (countKey[response.data.status]) next[countKey[response.data.status]] += 1;
+                return next;
+            });
 
             console.log(`Request ${actionType}d successfully:`, response.data);
             handleModalClose();
@@ -198,6 +227,17 @@ const ManagerLeaveApprovalPage = () => {
                             </tbody>
                         </table>
                     </div>
+                    {nextCursor && !loading && (
+                        <div className="p-4 border-t border-slate-200 text-center">
+                            <button
+                                onClick={handleLoadMore}
+                                disabled={loadingMore}
+                                className="px-4 py-2 text-sm font-medium text-slate-700 bg-slate-100 rounded-lg hover:bg-slate-200 disabled:opacity-50 transition-colors"
+                            >
+                                {loadingMore ? 'Loading...' : 'Load more'}
+                            </button>
+                        </div>
+                    )}
                 </div>
             </div>
             
@@ -20,9 +20,8 @@ const ForgotPassword = () => {
 
     toast.promise(sendOtpPromise, {
       loading: 'Sending OTP...',
-      success: (response) => {
-        const otp = response.data;
-        navigate('/verify-otp', { state: { email, otp } });
+      success: () => {
+        navigate('/verify-otp', { state: { email } });
         return 'OTP has been sent to your email!';
       },
       error: (error) => {
@@ -30,6 +29,9 @@ const ForgotPassword = () => {
         if (error.response && error.response.status === 404) {
           return "No account found with this email.";
         }
+        if (error.response && error.response.status === 429) {
+          return "Too many OTP requests. Please try again later.";
+        }
         return "Failed to send OTP. Please try again.";
       },
     });
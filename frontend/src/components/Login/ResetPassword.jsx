@@ -14,13 +14,14 @@ const ResetPassword = () => {
   const navigate = useNavigate();
   const location = useLocation();
   const email = location.state?.email;
+  const resetToken = location.state?.resetToken;
 
   useEffect(() => {
-    if (!email) {
+    if (!email || !resetToken) {
       toast.error("Invalid session. Please start the password reset process again.");
       navigate('/forgot-password');
     }
-  }, [email, navigate]);
+  }, [email, resetToken, navigate]);
 
   const handleResetPassword = async (event) => {
     event.preventDefault();
@@ -31,7 +32,7 @@ const ResetPassword = () => {
     setIsLoading(true);
 
     // --- Replace with your actual API endpoint ---
-    const resetPromise = api.post("/api/reset-password", { email, password });
+    const resetPromise = api.post("/api/reset-password", { email, password, resetToken });
 
     toast.promise(resetPromise, {
       loading: 'Resetting password...',
@@ -39,8 +40,12 @@ const ResetPassword = () => {
         setTimeout(() => navigate('/login'), 2000);
         return 'Password has been reset successfully! Redirecting to login...';
       },
-      error: () => {
+      error: (error) => {
         setIsLoading(false);
+        if (error.response && error.response.status === 403) {
+          setTimeout(() => navigate('/forgot-password'), 2000);
+          return 'Your reset session has expired. Please request a new OTP.';
+        }
         return 'Failed to reset password. Please try again.';
       },
     });
@@ -1,27 +1,27 @@
 import React, { useState, useEffect, useRef } from 'react';
 import { useNavigate, useLocation } from 'react-router-dom';
 import { Toaster, toast } from 'sonner';
+import api from '../../api'
 import loginimg from '../../assets/login.jpg'; // Adjust path if needed
 
 const VerifyOTP = () => {
-  const [otp, setOtp] = useState(['', '', '', '']);
+  const OTP_LENGTH = 6;
+  const [otp, setOtp] = useState(Array(OTP_LENGTH).fill(''));
   const [isLoading, setIsLoading] = useState(false);
   const navigate = useNavigate();
   const location = useLocation();
   
-  // Get email and the correct OTP from the previous page's state
+  // Get email from the previous page's state; the code is checked by the server
   const email = location.state?.email;
-  const correctOtp = location.state?.otp; // The OTP to check against
-console.log(correctOtp)
   const inputRefs = useRef([]);
 
-  // Redirect if essential data (email or the correct OTP) is missing
+  // Redirect if the email is missing
   useEffect(() => {
-    if (!email || !correctOtp) {
+    if (!email) {
       toast.error("An error occurred. Please start over.");
       navigate('/forgot-password');
     }
-  }, [email, correctOtp, navigate]);
+  }, [email, navigate]);
 
   const handleChange = (element, index) => {
     if (isNaN(element.value)) return;
@@ -29,7 +29,7 @@ console.log(correctOtp)
     newOtp[index] = element.value;
     setOtp(newOtp);
 
-    if (element.value && index < 3) {
+    if (element.value && index < OTP_LENGTH - 1) {
       inputRefs.current[index + 1].focus();
     }
   };
@@ -42,40 +42,59 @@ console.log(correctOtp)
 
   const handlePaste = (e) => {
     e.preventDefault();
-    const pastedData = e.clipboardData.getData('text').slice(0, 4);
-    if (!isNaN(pastedData) && pastedData.length === 4) {
+    const pastedData = e.clipboardData.getData('text').slice(0, OTP_LENGTH);
+    if (!isNaN(pastedData) && pastedData.length === OTP_LENGTH) {
       const newOtp = pastedData.split('');
       setOtp(newOtp);
-      inputRefs.current[3].focus();
+      inputRefs.current[OTP_LENGTH - 1].focus();
     }
   };
 
-  // --- THIS FUNCTION IS NOW SYNCHRONOUS (NO API CALL) ---
-  const handleVerifyOTP = (event) => {
+  const resetInputs = () => {
+    setOtp(Array(OTP_LENGTH).fill(''));
+    inputRefs.current[0].focus();
+  };
+
+  const handleVerifyOTP = async (event) => {
     event.preventDefault();
-    setIsLoading(true);
     const enteredOtp = otp.join('');
 
-    if (enteredOtp.length !== 4) {
-      toast.error("Please enter the complete 4-digit OTP.");
-      setIsLoading(false);
+    if (enteredOtp.length !== OTP_LENGTH) {
+      toast.error(`Please enter the complete ${OTP_LENGTH}-digit OTP.`);
       return;
     }
 
-    // Simulate a brief delay for a better user experience
-    setTimeout(() => {
-      // The core verification logic
-      if (enteredOtp === String(correctOtp)) {
-        toast.success('OTP verified successfully!');
-        // Navigate to the reset password page, passing the email along
-        navigate('/reset-password', { state: { email } });
+    setIsLoading(true);
+    try {
+      const response = await api.post("/api/verify-otp", { email, otp: enteredOtp });
+      toast.success('OTP verified successfully!');
+      // The reset token proves the OTP was verified; reset-password requires it
+      navigate('/reset-password', { state: { email, resetToken: response.data.resetToken } });
+    } catch (error) {
+      setIsLoading(false);
+      if (error.response && error.response.status === 410) {
+        toast.error('This OTP has expired. Please request a new one.');
+      } else if (error.response && typeof error.response.data === 'string') {
+        toast.error(error.response.data);
       } else {
         toast.error('Invalid OTP. Please try again.');
-        setIsLoading(false);
-        setOtp(['', '', '', '']); // Clear inputs on error
-        inputRefs.current[0].focus(); // Reset focus to the first input
       }
-    }, 500); // 0.5-second delay
+      resetInputs();
+    }
+  };
+
+  const handleResendOTP = async () => {
+    try {
+      await api.post("/api/forgot-password", { email });
+      toast.success('A new OTP has been sent to your email!');
+      resetInputs();
+    } catch (error) {
+      if (error.response && error.response.status === 429) {
+        toast.error('Too many OTP requests. Please try again later.');
+      } else {
+        toast.error('Failed to resend OTP. Please try again.');
+      }
+    }
   };
 
   return (
@@ -93,7 +112,7 @@ console.log(correctOtp)
             <div className="text-center">
               <h1 className="text-4xl font-bold mb-2">Check Your Email</h1>
               <p className="text-gray-500">
-                We've sent a 4-digit code to <br />
+                We've sent a {OTP_LENGTH}-digit code to <br />
                 <strong className="text-black">{email || 'your email'}</strong>
               </p>
             </div>
@@ -111,7 +130,7 @@ console.log(correctOtp)
                     onChange={(e) => handleChange(e.target, index)}
                     onKeyDown={(e) => handleKeyDown(e, index)}
                     onFocus={(e) => e.target.select()}
-                    className="w-14 h-14 text-center text-2xl font-semibold border-2 border-gray-300 rounded-md focus:border-blue-500 focus:outline-none focus:ring-1 focus:ring-blue-500 transition-colors"
+                    className="w-12 h-14 text-center text-2xl font-semibold border-2 border-gray-300 rounded-md focus:border-blue-500 focus:outline-none focus:ring-1 focus:ring-blue-500 transition-colors"
                   />
                 ))}
               </div>
@@ -127,7 +146,7 @@ console.log(correctOtp)
               </div>
             </form>
              <p className="text-center text-sm text-gray-500">
-              Didn't receive the code? <button type="button" className="font-medium text-blue-600 hover:text-blue-500">Resend OTP</button>
+              Didn't receive the code? <button type="button" onClick={handleResendOTP} className="font-medium text-blue-600 hover:text-blue-500">Resend OTP</button>
             </p>
           </div>
         </div>
@@ -73,6 +73,7 @@ const ReviewFormModal = ({ employee, isOpen, onClose, onReviewSubmit }) => {
 
         const reviewPayload = {
             reviewId: employee.reviewId,
+            version: employee.reviewVersion,
             employeeId: employee.id,
             reviewerId: managerId,
             ...formData,
@@ -191,7 +192,7 @@ const ManagerReviewPage = () => {
                             const reviewRes = await api.get(`/api/performance-reviews/employee/${emp.id}/latest`);
                             console.log(reviewRes.data)
                             // Assuming the latest review determines the status for the current cycle
-                            return { ...emp, reviewStatus: reviewRes.data.status || 'PENDING', reviewId:reviewRes.data.reviewId  };
+                            return { ...emp, reviewStatus: reviewRes.data.status || 'PENDING', reviewId:reviewRes.data.reviewId, reviewVersion: reviewRes.data.version };
                         } catch (e) {
                             // If no review found (404), it's pending
                             return { ...emp, reviewStatus: 'PENDING' };
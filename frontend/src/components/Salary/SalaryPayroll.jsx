@@ -1,4 +1,4 @@
-import React, { useEffect, useState, useMemo } from 'react';
+import React, { useEffect, useState, useMemo, useRef } from 'react';
 import { toast } from 'sonner';
 import {
   FileText,
@@ -16,6 +16,26 @@ import {
 } from 'lucide-react';
 import api from '../../api'
 
+// Payslip months are numbers (1-12); show them by name.
+const monthLabel = (month) => new Date(2000, month - 1, 1).toLocaleString('default', { month: 'long' });
+
+// Payslips carry a snapshot of who was paid and what; shape it like the employee and salary the cards expect.
+const payslipParts = (p) => {
+  if (!p || p.netSalary == null) return { employee: null, salary: null };
+  return {
+    employee: { firstName: p.employeeName, lastName: '', role: p.role },
+    salary: {
+      basic: p.basic,
+      hra: p.hra,
+      specialAllowance: p.specialAllowance,
+      grossEarnings: p.grossEarnings,
+      professionalTax: p.professionalTax,
+      providentFund: p.providentFund,
+      netSalary: p.netSalary,
+    },
+  };
+};
+
 // --- Helper Component: StatCard ---
 const StatCard = ({ icon, title, value, color }) => (
   <div className="bg-white rounded-2xl shadow-sm border border-gray-200 p-5 flex items-center gap-4">
@@ -42,7 +62,7 @@ const PayslipCard = ({ payslip, employee, salary, onViewDetails }) => {
       <div className="space-y-1 text-sm text-gray-500 mb-5">
         <div className="flex items-center gap-2">
           <CalendarDays className="w-4 h-4" />
-          <span>{payslip.month}, {payslip.year}</span>
+          <span>{monthLabel(payslip.month)}, {payslip.year}</span>
         </div>
         <div className="flex items-center gap-2 text-xs text-gray-400">
           <CheckCircle className="w-3 h-3" />
@@ -82,7 +102,7 @@ const PayslipDetailModal = ({ isOpen, onClose, payslip, employee, salary }) => {
         <div className="text-center mb-6 border-b pb-4">
           <h3 className="text-xl font-semibold">{employee.firstName} {employee.lastName}</h3>
           <p className="text-gray-500">{employee.role}</p>
-          <p className="text-sm text-gray-400">{payslip.month} {payslip.year}</p>
+          <p className="text-sm text-gray-400">{monthLabel(payslip.month)} {payslip.year}</p>
         </div>
         <div className="space-y-6">
           <div>
@@ -114,17 +134,16 @@ const PayslipHistory = ({ payslips, employees, onBack, onViewDetails }) => {
     const [selectedMonth, setSelectedMonth] = useState('');
 
     const roles = useMemo(() => [...new Set(employees.map(e => e.employee.role).filter(Boolean))], [employees]);
-    const months = useMemo(() => [...new Set(payslips.map(p => p.month).filter(Boolean))], [payslips]);
+    const months = useMemo(() => [...new Set(payslips.map(p => p.month).filter(Boolean))].sort((a, b) => a - b), [payslips]);
 
     const filteredPayslips = useMemo(() => {
         return payslips.map(p => {
-            const salaryStructure = employees.find(e => e.id === p.salary.id);
-            return { ...p, employee: salaryStructure?.employee, salary: salaryStructure };
+            return { ...p, ...payslipParts(p) };
         }).filter(p => {
             if (!p.employee || !p.salary) return false;
             const nameMatch = `${p.employee.firstName} ${p.employee.lastName}`.toLowerCase().includes(searchTerm.toLowerCase());
             const roleMatch = selectedRole ? p.employee.role === selectedRole : true;
-            const monthMatch = selectedMonth ? p.month === selectedMonth : true;
+            const monthMatch = selectedMonth ? p.month === Number(selectedMonth) : true;
             return nameMatch && roleMatch && monthMatch;
         });
     }, [payslips, employees, searchTerm, selectedRole, selectedMonth]);
@@ -149,7 +168,7 @@ const PayslipHistory = ({ payslips, employees, onBack, onViewDetails }) => {
                     </select>
                      <select value={selectedMonth} onChange={e => setSelectedMonth(e.target.value)} className="w-full p-2 border rounded-lg bg-white focus:ring-2 focus:ring-green-500">
                         <option value="">Filter by Month</option>
-                        {months.map(month => <option key={month} value={month}>{month}</option>)}
+                        {months.map(month => <option key={month} value={month}>{monthLabel(month)}</option>)}
                     </select>
                 </div>
             </div>
@@ -161,7 +180,7 @@ const PayslipHistory = ({ payslips, employees, onBack, onViewDetails }) => {
                             <div key={p.id} className="rounded-lg hover:bg-gray-50 p-4 flex flex-col sm:flex-row items-start sm:items-center justify-between">
                                 <div className="mb-2 sm:mb-0">
                                     <p className="font-bold text-gray-800">{p.employee.firstName} {p.employee.lastName}</p>
-                                    <p className="text-sm text-gray-500">{p.employee.role} | {p.month}, {p.year}</p>
+                                    <p className="text-sm text-gray-500">{p.employee.role} | {monthLabel(p.month)}, {p.year}</p>
                                 </div>
                                 <div className="flex items-center gap-4 w-full sm:w-auto">
                                     <p className="font-semibold text-gray-700 w-full sm:w-auto">₹{p.salary.netSalary.toLocaleString()}</p>
@@ -190,6 +209,8 @@ const SalaryPayroll = () => {
   const [isProcessing, setIsProcessing] = useState(false);
   const [isModalOpen, setIsModalOpen] = useState(false);
   const [selectedPayslip, setSelectedPayslip] = useState(null);
+  // Kept until the server answers, so retrying after a dropped request reuses the same run.
+  const runKey = useRef(null);
 
   useEffect(() => {
     const fetchAllData = () => {
@@ -215,35 +236,40 @@ const SalaryPayroll = () => {
     .filter(emp => emp.employee.status === 'Active')
     .reduce((sum, emp) => sum + emp.netSalary, 0), [employees]);
 
-  const runPayroll = () => {
+  const runPayroll = async () => {
     setIsProcessing(true);
     toast.info('Running payroll for all active employees...', { icon: <Clock className="animate-spin" /> });
-    setTimeout(async () => {
-      try {
-        const activeEmployees = employees.filter((emp) => emp.employee.status === 'Active');
-        if (activeEmployees.length === 0) {
-            toast.error("No active employees to process payroll for.");
-            setIsProcessing(false);
-            return;
-        }
-        
-        const newPayslipsPayload = activeEmployees.map((emp) => ({
-          user: { id: emp.employee.id },
-          salary: { id: emp.id },
-          month: new Date().toLocaleString('default', { month: 'long' }),
-          year: new Date().getFullYear(),
-        }));
-
-        const response = await api.post("/api/storePaySlips", newPayslipsPayload);
-        setPayslips(prev => [...response.data, ...prev].sort((a,b) => new Date(b.generatedOn) - new Date(a.generatedOn)));
-        toast.success(`Payroll processed successfully for ${activeEmployees.length} employees!`);
-      } catch (error) {
-        console.error("Error running payroll:", error);
+    try {
+      const now = new Date();
+      if (!runKey.current) runKey.current = crypto.randomUUID();
+      const started = await api.post("/api/payroll/runs", { month: now.getMonth() + 1, year: now.getFullYear() },
+        { headers: { 'Idempotency-Key': runKey.current } });
+      runKey.current = null;
+      // The run is processed on the server; poll its progress until it settles.
+      let run = started.data;
+      while (run.status === 'RUNNING') {
+        await new Promise(resolve => setTimeout(resolve, 1000));
+        run = (await api.get(`/api/payroll/runs/${run.id}`)).data;
+      }
+      if (run.status === 'FAILED') {
+        toast.error(`Payroll run stopped after ${run.processedEmployees} of ${run.totalEmployees} employees: ${run.lastError}`);
+      } else if (run.totalEmployees === 0) {
+        toast.error("No active employees to process payroll for.");
+      } else {
+        toast.success(`Payroll processed successfully for ${run.processedEmployees} employees!`);
+      }
+      const payslipRes = await api.get("/api/fetchAllPayslips");
+      setPayslips(payslipRes.data.sort((a,b) => new Date(b.generatedOn) - new Date(a.generatedOn)));
+    } catch (error) {
+      console.error("Error running payroll:", error);
+      if (error.response?.status === 409) {
+        toast.error("A payroll run for this month is already in progress.");
+      } else {
         toast.error("Failed to process payroll. Please check the console.");
-      } finally {
-        setIsProcessing(false);
       }
-    }, 2500);
+    } finally {
+      setIsProcessing(false);
+    }
   };
 
   const handleViewDetails = (payslip) => {
@@ -253,9 +279,8 @@ const SalaryPayroll = () => {
   
   const selectedPayslipDetails = useMemo(() => {
     if (!selectedPayslip) return { employee: null, salary: null };
-    const salaryStructure = employees.find(e => e.id === selectedPayslip.salary.id);
-    return { employee: salaryStructure?.employee, salary: salaryStructure };
-  }, [selectedPayslip, employees]);
+    return payslipParts(selectedPayslip);
+  }, [selectedPayslip]);
 
   return (
     <div className="bg-gray-50 min-h-screen font-sans">
@@ -291,8 +316,8 @@ const SalaryPayroll = () => {
               </div>
               <div className="grid gap-8 md:grid-cols-2 lg:grid-cols-3">
                  {payslips.slice(0, 6).map((payslip) => {
-                    const salaryStructure = employees.find(e => e.id === payslip.salary.id);
-                    return <PayslipCard key={payslip.id} payslip={payslip} employee={salaryStructure?.employee} salary={salaryStructure} onViewDetails={handleViewDetails}/>
+                    const { employee, salary } = payslipParts(payslip);
+                    return <PayslipCard key={payslip.id} payslip={payslip} employee={employee} salary={salary} onViewDetails={handleViewDetails}/>
                  })}
               </div>
             </section>
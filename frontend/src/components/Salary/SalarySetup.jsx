@@ -26,6 +26,8 @@ const SalarySetup = () => {
         hra: 0,
         professionalTax: 200, // Default PT for many states
     });
+    // First day the new structure applies; earlier payslips keep the structure they were issued with.
+    const [effectiveFrom, setEffectiveFrom] = useState(new Date().toISOString().slice(0, 10));
 
     // --- Data Fetching ---
     useEffect(() => {
@@ -155,6 +157,7 @@ const SalarySetup = () => {
             grossEarnings: calculations.grossEarnings,
             netSalary: calculations.netSalary,
             ctc: calculations.ctc,
+            effectiveFrom,
         };
 
         const savePromise = api.post("/api/submitStructure", payload);
@@ -168,7 +171,8 @@ const SalarySetup = () => {
             },
             error: (err) => {
                 console.error("Save error:", err);
-                return "Failed to save the structure.";
+                // 400/409 explain what to fix (structure over CTC, a later structure already exists).
+                return typeof err.response?.data === 'string' ? err.response.data : "Failed to save the structure.";
             }
         });
     };
@@ -209,6 +213,11 @@ const SalarySetup = () => {
                                 </div>
                                 
                                 <div className="space-y-8">
+                                    <div>
+                                        <label className="block text-sm font-medium text-gray-700">Effective From</label>
+                                        <input type="date" value={effectiveFrom} onChange={(e) => setEffectiveFrom(e.target.value)} className="mt-1 w-full md:w-1/2 p-2 border rounded-md" />
+                                    </div>
+
                                     <div>
                                         <h3 className="text-lg font-semibold text-gray-800 mb-4">Earnings</h3>
                                         <div className="grid grid-cols-1 md:grid-cols-2 gap-6">